@@ -0,0 +1,37 @@
+package com.michael.spring_boot_security.benchmark;
+
+import com.michael.spring_boot_security.enumerations.Authority;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+import static com.michael.spring_boot_security.constans.AppConstants.AUTHORITY_DELIMITER;
+import static com.michael.spring_boot_security.constans.AppConstants.ROLE_PREFIX;
+import static org.springframework.security.core.authority.AuthorityUtils.commaSeparatedStringToAuthorityList;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorityBenchmark {
+
+    @Param({"USER", "SUPER_ADMIN"})
+    private Authority authority;
+
+    @Benchmark
+    public List<GrantedAuthority> joinAndSplit() {
+        return commaSeparatedStringToAuthorityList(new StringJoiner(AUTHORITY_DELIMITER)
+                .add(authority.getValue())
+                .add(ROLE_PREFIX + authority.name()).toString());
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> registryLookup() {
+        return Authority.grantedAuthorities(authority.name(), authority.getPermissions()).orElseThrow();
+    }
+}
@@ -0,0 +1,62 @@
+package com.michael.spring_boot_security.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.michael.spring_boot_security.config.JsonCodec;
+import com.michael.spring_boot_security.enumerations.Authority;
+import com.michael.spring_boot_security.payload.request.LoginRequest;
+import com.michael.spring_boot_security.payload.response.Response;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpStatus.OK;
+
+// Запускать с -prof gc (по умолчанию в профиле jmh): gc.alloc.rate.norm показывает выделение памяти на один вход
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+    private static final byte[] LOGIN_REQUEST = "{\"email\":\"michael@example.com\",\"password\":\"password\"}".getBytes(UTF_8);
+
+    private JsonCodec jsonCodec;
+    private Response response;
+
+    @Setup
+    public void setUp() {
+        jsonCodec = new JsonCodec(Jackson2ObjectMapperBuilder.json().build());
+        response = new Response(LocalDateTime.now().toString(), OK.value(), "/user/login", OK,
+                "Login success", null, Map.of("user", Users.user(Authority.USER)));
+    }
+
+    // Прежний путь ApiAuthenticationFilter: новый ObjectMapper на чтение и на запись
+    @Benchmark
+    public void newMapperPerRequest(Blackhole blackhole) throws IOException {
+        var request = new ObjectMapper().configure(AUTO_CLOSE_SOURCE, true)
+                .readValue(new ByteArrayInputStream(LOGIN_REQUEST), LoginRequest.class);
+        blackhole.consume(request);
+        var out = new ByteArrayOutputStream(512);
+        new ObjectMapper().writeValue(out, response);
+        blackhole.consume(out);
+    }
+
+    @Benchmark
+    public void sharedCodec(Blackhole blackhole) throws IOException {
+        LoginRequest request = jsonCodec.getLoginRequestReader().readValue(new ByteArrayInputStream(LOGIN_REQUEST));
+        blackhole.consume(request);
+        var out = new ByteArrayOutputStream(512);
+        jsonCodec.getResponseWriter().writeValue(out, response);
+        blackhole.consume(out);
+    }
+}
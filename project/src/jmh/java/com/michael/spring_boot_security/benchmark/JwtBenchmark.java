@@ -0,0 +1,72 @@
+package com.michael.spring_boot_security.benchmark;
+
+import com.michael.spring_boot_security.cache.CacheStore;
+import com.michael.spring_boot_security.domain.TokenData;
+import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.domain.VerifiedClaims;
+import com.michael.spring_boot_security.enumerations.Authority;
+import com.michael.spring_boot_security.security.JwtKeyRing;
+import com.michael.spring_boot_security.security.SecurityEpochStore;
+import com.michael.spring_boot_security.security.TokenExtractor;
+import com.michael.spring_boot_security.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.michael.spring_boot_security.enumerations.TokenType.ACCESS;
+import static com.michael.spring_boot_security.enumerations.TokenType.REFRESH;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+    private static final String SECRET = "secretsecretsecretsecretsecretsecretsecretsecretsecretsecretsecretsecretssecretwslsdfjnskdlnmea";
+
+    private JwtKeyRing keyRing;
+    private JwtServiceImpl jwtService;
+    private User user;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        keyRing = new JwtKeyRing();
+        keyRing.setSecret(SECRET);
+        keyRing.rotate("benchmark", SECRET);
+        user = Users.user(Authority.ADMIN);
+        // Эпоха заранее в кэше: бенчмарк не обращается к базе
+        var epochCache = new CacheStore<String, Long>(3600, TimeUnit.SECONDS, 10_000);
+        epochCache.put(user.getUserId(), 0L);
+        jwtService = new JwtServiceImpl(null, keyRing,
+                new CacheStore<String, VerifiedClaims>(3600, TimeUnit.SECONDS, 10_000),
+                new SecurityEpochStore(epochCache, null),
+                new CacheStore<String, String>(3600, TimeUnit.SECONDS, 10_000),
+                new TokenExtractor());
+        jwtService.setExpiration(3600L);
+        jwtService.setStatelessVerification(true);
+        accessToken = jwtService.createToken(user, ACCESS);
+    }
+
+    @Benchmark
+    public String mintAccessToken() {
+        return jwtService.createToken(user, ACCESS);
+    }
+
+    @Benchmark
+    public String mintRefreshToken() {
+        return jwtService.createToken(user, REFRESH);
+    }
+
+    @Benchmark
+    public Claims verifyUncached() {
+        return keyRing.getParser().parseSignedClaims(accessToken).getPayload();
+    }
+
+    @Benchmark
+    public TokenData resolveTokenData() {
+        return jwtService.getTokenData(accessToken, tokenData -> tokenData);
+    }
+}
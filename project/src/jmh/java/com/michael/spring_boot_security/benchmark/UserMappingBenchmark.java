@@ -0,0 +1,36 @@
+package com.michael.spring_boot_security.benchmark;
+
+import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.entity.CredentialEntity;
+import com.michael.spring_boot_security.entity.RoleEntity;
+import com.michael.spring_boot_security.entity.UserEntity;
+import com.michael.spring_boot_security.enumerations.Authority;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.michael.spring_boot_security.utility.UserUtils.fromUserEntity;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserMappingBenchmark {
+    private UserEntity userEntity;
+    private RoleEntity role;
+    private CredentialEntity credential;
+
+    @Setup
+    public void setUp() {
+        role = Users.role(Authority.ADMIN);
+        userEntity = Users.userEntity(role);
+        credential = Users.credential(userEntity);
+    }
+
+    @Benchmark
+    public User fromEntity() {
+        return fromUserEntity(userEntity, role, credential);
+    }
+}
@@ -0,0 +1,66 @@
+package com.michael.spring_boot_security.benchmark;
+
+import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.entity.CredentialEntity;
+import com.michael.spring_boot_security.entity.RoleEntity;
+import com.michael.spring_boot_security.entity.UserEntity;
+import com.michael.spring_boot_security.enumerations.Authority;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+final class Users {
+
+    private Users() {
+    }
+
+    static User user(Authority authority) {
+        return User.builder()
+                .id(1L)
+                .userId(UUID.randomUUID().toString())
+                .firstName("Michael")
+                .lastName("Royf")
+                .email("michael@example.com")
+                .role(authority.name())
+                .authorities(authority.getValue())
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .credentialsNonExpired(true)
+                .enabled(true)
+                .build();
+    }
+
+    static RoleEntity role(Authority authority) {
+        var role = new RoleEntity(authority.name(), authority);
+        role.setId(1L);
+        return role;
+    }
+
+    static UserEntity userEntity(RoleEntity role) {
+        var userEntity = UserEntity.builder()
+                .userId(UUID.randomUUID().toString())
+                .firstName("Michael")
+                .lastName("Royf")
+                .email("michael@example.com")
+                .loginAttempts(0)
+                .lastLogin(LocalDateTime.now())
+                .phone("555-0100")
+                .bio("Benchmark user")
+                .imageUrl("https://cdn-icons-png.flaticon.com/512/149/149071.png")
+                .accountNonExpired(true)
+                .accountNonLocked(true)
+                .enabled(true)
+                .role(role)
+                .build();
+        userEntity.setId(1L);
+        userEntity.setCreatedAt(LocalDateTime.now());
+        userEntity.setUpdatedAt(LocalDateTime.now());
+        return userEntity;
+    }
+
+    static CredentialEntity credential(UserEntity userEntity) {
+        var credential = new CredentialEntity("$2a$12$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchm", userEntity);
+        credential.setUpdatedAt(LocalDateTime.now());
+        return credential;
+    }
+}
@@ -1,15 +1,120 @@
 package com.michael.spring_boot_security.cache;
 
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.domain.VerifiedClaims;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import javax.crypto.spec.SecretKeySpec;
+import java.time.Duration;
+import java.util.LinkedHashMap;
 
+// Каждый кэш получает свою спецификацию Caffeine из свойств cache.spec.<имя>;
+// при cache.mode=tiered кэши с общим состоянием работают в два уровня с инвалидацией между узлами,
+// время жизни записей в общем уровне задаётся свойствами cache.shared-ttl.<имя>
 @Configuration
+@RequiredArgsConstructor
 public class CacheConfig {
+    public static final String USERS_CACHE = "users";
+    private static final String TIERED = "tiered";
+
+    private final SharedCacheTier sharedCacheTier;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    @Value("${cache.mode:local}")
+    private String mode;
 
     @Bean(name = {"userLoginCache"})
-    public CacheStore<String, Integer> userCache() {
-        return new CacheStore<>(900, TimeUnit.SECONDS);
+    public CacheStore<String, Integer> userCache(@Value("${cache.spec.user-login:maximumSize=100000,expireAfterWrite=900s}") String spec,
+                                                 @Value("${cache.shared-ttl.user-login:900s}") Duration timeToLive) {
+        return store("userLoginCache", spec, timeToLive);
+    }
+
+    // Проверенные токены: каждая запись живёт до exp своего токена, поэтому спецификация задаёт только размер
+    @Bean(name = {"tokenCache"})
+    public CacheStore<String, VerifiedClaims> tokenCache(@Value("${cache.spec.token:maximumSize=10000}") String spec) {
+        return new CacheStore<>(spec, builder -> builder.expireAfter(new Expiry<String, VerifiedClaims>() {
+            @Override
+            public long expireAfterCreate(String tokenHash, VerifiedClaims verifiedClaims, long currentTime) {
+                return verifiedClaims.nanosUntilExpiration();
+            }
+
+            @Override
+            public long expireAfterUpdate(String tokenHash, VerifiedClaims verifiedClaims, long currentTime, long currentDuration) {
+                return verifiedClaims.nanosUntilExpiration();
+            }
+
+            @Override
+            public long expireAfterRead(String tokenHash, VerifiedClaims verifiedClaims, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        }));
+    }
+
+    // Семейства refresh-токенов всегда идут через общий уровень независимо от cache.mode: ротация атомарна для всех узлов,
+    // а refresh, пришедший на другой узел, не принимается за повторное использование токена
+    @Bean(name = {"refreshTokenFamilies"})
+    public CacheStore<String, String> refreshTokenFamilies(@Value("${cache.spec.refresh-token-families:maximumSize=100000,expireAfterWrite=${jwt.expiration}s}") String spec,
+                                                           @Value("${cache.shared-ttl.refresh-token-families:${jwt.expiration}s}") Duration timeToLive) {
+        return new TieredCacheStore<>("refreshTokenFamilies", spec, timeToLive, sharedCacheTier, cacheInvalidationBus);
+    }
+
+    @Bean(name = {"userSnapshotCache"})
+    public CacheStore<String, User> userSnapshotCache(@Value("${cache.spec.user-snapshot:maximumSize=10000,expireAfterWrite=300s}") String spec,
+                                                      @Value("${cache.shared-ttl.user-snapshot:300s}") Duration timeToLive) {
+        return store("userSnapshotCache", spec, timeToLive);
+    }
+
+    // Эпохи безопасности из users.security_epoch; в локальном режиме изменение на другом узле видно не позже чем через expireAfterWrite
+    @Bean(name = {"securityEpochCache"})
+    public CacheStore<String, Long> securityEpochCache(@Value("${cache.spec.security-epoch:maximumSize=100000,expireAfterWrite=30s}") String spec,
+                                                       @Value("${cache.shared-ttl.security-epoch:30s}") Duration timeToLive) {
+        return store("securityEpochCache", spec, timeToLive);
+    }
+
+    // Недавние входы с несуществующим email: повторные промахи не доходят до базы
+    @Bean(name = {"unknownEmailCache"})
+    public CacheStore<String, Boolean> unknownEmailCache(@Value("${cache.spec.unknown-email:maximumSize=100000,expireAfterWrite=600s}") String spec,
+                                                         @Value("${cache.shared-ttl.unknown-email:600s}") Duration timeToLive) {
+        return store("unknownEmailCache", spec, timeToLive);
+    }
+
+    // Отрисованные PNG с QR-кодом MFA: рендерится по запросу, а не хранится в users; ограничение по суммарному размеру в байтах.
+    // QR-код содержит секрет TOTP, поэтому кэш всегда локальный и не попадает в общий уровень
+    @Bean(name = {"qrCodeImageCache"})
+    public CacheStore<String, byte[]> qrCodeImageCache(@Value("${cache.spec.qrcode:maximumWeight=8388608,expireAfterAccess=600s}") String spec) {
+        return new CacheStore<>(spec, builder -> builder.weigher((String userId, byte[] image) -> image.length));
+    }
+
+    // Декодированные секреты TOTP по ключу Base32-секрета: всегда локальный кэш, секреты не покидают процесс
+    @Bean(name = {"totpKeyCache"})
+    public CacheStore<String, SecretKeySpec> totpKeyCache(@Value("${cache.spec.totp-key:maximumSize=10000,expireAfterAccess=3600s}") String spec) {
+        return new CacheStore<>(spec);
+    }
+
+    // Использованные коды MFA живут, пока код может пройти проверку (TOTP_PERIOD * (2 * TOTP_ALLOWED_DISCREPANCY + 1)), — повторное использование отклоняется
+    @Bean(name = {"usedTotpCodes"})
+    public CacheStore<String, Long> usedTotpCodes(@Value("${cache.spec.used-totp-codes:maximumSize=100000,expireAfterWrite=90s}") String spec,
+                                                  @Value("${cache.shared-ttl.used-totp-codes:90s}") Duration timeToLive) {
+        return store("usedTotpCodes", spec, timeToLive);
+    }
+
+    // Кэши для @Cacheable в UserService: размер и время жизни каждого задаются здесь, неизвестные имена не создаются.
+    // Кэшируются только вызовы через прокси (профиль из контроллеров и фильтра входа); JPA-сущности не кэшируются
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.spec.users:maximumSize=10000,expireAfterWrite=300s}") String usersSpec,
+                                     @Value("${cache.shared-ttl.users:300s}") Duration usersTimeToLive) {
+        var stores = new LinkedHashMap<String, CacheStore<Object, Object>>();
+        stores.put(USERS_CACHE, store(USERS_CACHE, usersSpec, usersTimeToLive));
+        // @CacheEvict/@CachePut и ручные удаления применяются после коммита транзакции
+        return new TransactionAwareCacheManagerProxy(new CacheStoreCacheManager(stores));
+    }
+
+    private <K, V> CacheStore<K, V> store(String name, String spec, Duration timeToLive) {
+        return TIERED.equals(mode) ? new TieredCacheStore<>(name, spec, timeToLive, sharedCacheTier, cacheInvalidationBus) : new CacheStore<>(spec);
     }
 }
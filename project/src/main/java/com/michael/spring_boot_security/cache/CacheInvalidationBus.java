@@ -0,0 +1,14 @@
+package com.michael.spring_boot_security.cache;
+
+import java.util.function.Consumer;
+
+// SPI рассылки инвалидаций между узлами: получатели сбрасывают ключ в своём локальном уровне
+public interface CacheInvalidationBus {
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(String cache, Consumer<CacheInvalidation> listener);
+
+    // key == null — сбросить весь кэш
+    record CacheInvalidation(String origin, String cache, Object key) {
+    }
+}
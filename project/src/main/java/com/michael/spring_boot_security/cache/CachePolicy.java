@@ -0,0 +1,9 @@
+package com.michael.spring_boot_security.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Дополнительная политика поверх строки спецификации: weigher, Expiry, executor и т.п.
+@FunctionalInterface
+public interface CachePolicy<K, V> {
+    Caffeine<K, V> apply(Caffeine<Object, Object> builder);
+}
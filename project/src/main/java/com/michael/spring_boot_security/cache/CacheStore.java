@@ -1,41 +1,185 @@
 package com.michael.spring_boot_security.cache;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 
 @Slf4j
 public class CacheStore<K, V> {
+    // Верхняя граница для кэшей, созданных без явного размера
+    public static final long DEFAULT_MAXIMUM_SIZE = 100_000;
+    private static final String RECORD_STATS = "recordStats";
+    private static final String MAXIMUM_SIZE = "maximumSize";
+    private static final String MAXIMUM_WEIGHT = "maximumWeight";
+    private static final String REFRESH_AFTER_WRITE = "refreshAfterWrite";
+
     private final Cache<K, V> cache;
+    private volatile String name = "cache";
+    private volatile int traceSampleRate;
 
     // Конструктор для инициализации кэша с заданным временем жизни
     public CacheStore(int expiryDuration, TimeUnit timeUnit) {
-        // Создание кэша с заданной конфигурацией
-        cache = CacheBuilder.newBuilder()
+        this(expiryDuration, timeUnit, DEFAULT_MAXIMUM_SIZE);
+    }
+
+    // Конструктор для ограниченного по размеру кэша со сбором статистики попаданий
+    public CacheStore(int expiryDuration, TimeUnit timeUnit, long maximumSize) {
+        cache = Caffeine.newBuilder()
                 .expireAfterWrite(expiryDuration, timeUnit) // Установка времени жизни записи
-                .concurrencyLevel(Runtime.getRuntime().availableProcessors()) // Установка уровня конкурентности
-                .build(); // Построение кэша
+                .maximumSize(maximumSize) // Ограничение количества записей, вытеснение по W-TinyLFU
+                .recordStats() // Сбор статистики hit/miss
+                .build();
+    }
+
+    // Конструктор по спецификации Caffeine, например "maximumSize=10000,expireAfterAccess=10m";
+    // без maximumSize/maximumWeight кэш ограничивается DEFAULT_MAXIMUM_SIZE
+    public CacheStore(@NotNull String spec) {
+        cache = builder(spec, false).build();
+    }
+
+    // Спецификация плюс собственная политика (например, ограничение по весу значений)
+    public CacheStore(@NotNull String spec, @NotNull CachePolicy<K, V> policy) {
+        cache = policy.apply(builder(spec, false)).build();
+    }
+
+    // Спецификация с загрузчиком: нужна для refreshAfterWrite — устаревшие записи обновляются в фоне
+    public CacheStore(@NotNull String spec, @NotNull CacheLoader<K, V> loader) {
+        cache = builder(spec, true).build(loader);
+    }
+
+    // Регистрация метрик hit/miss/load/eviction/size в Micrometer под именем бина
+    public void bindTo(@NotNull MeterRegistry registry, @NotNull String name, int traceSampleRate) {
+        this.name = name;
+        this.traceSampleRate = traceSampleRate;
+        CaffeineCacheMetrics.monitor(registry, cache, name);
     }
 
     // Метод для получения значения по ключу из кэша
     public V get(@NotNull K key) {
-        log.info("Retrieving from Cache with key {}", key.toString());
-        return cache.getIfPresent(key); // Возвращение значения, если оно присутствует в кэше
+        var value = cache.getIfPresent(key); // Возвращение значения, если оно присутствует в кэше
+        trace(value == null ? "miss" : "hit", key);
+        return value;
     }
 
     // Метод для добавления записи в кэш
     public void put(@NotNull K key, @NotNull V value) {
-        log.info("Storing record in Cache for key {}", key.toString());
         cache.put(key, value); // Сохранение записи в кэше
+        trace("put", key);
+    }
+
+    // Атомарное добавление: возвращает уже сохранённое значение или null, если запись добавлена
+    public V putIfAbsent(@NotNull K key, @NotNull V value) {
+        trace("putIfAbsent", key);
+        return cache.asMap().putIfAbsent(key, value);
+    }
+
+    // Чтение через кэш: загрузчик вызывается один раз на ключ, параллельные промахи ждут его результата
+    public V computeIfAbsent(@NotNull K key, @NotNull Function<? super K, ? extends V> loader) {
+        trace("computeIfAbsent", key);
+        return cache.get(key, loader);
+    }
+
+    // Атомарное изменение записи; null из remapping удаляет запись
+    public V compute(@NotNull K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remapping) {
+        trace("compute", key);
+        return cache.asMap().compute(key, remapping);
+    }
+
+    public V merge(@NotNull K key, @NotNull V value, @NotNull BiFunction<? super V, ? super V, ? extends V> remapping) {
+        trace("merge", key);
+        return cache.asMap().merge(key, value, remapping);
+    }
+
+    // Атомарный счётчик для кэшей со значениями Integer: отсутствующая запись начинается с 1
+    @SuppressWarnings("unchecked")
+    public int incrementAndGet(@NotNull K key) {
+        trace("increment", key);
+        return (Integer) cache.asMap().merge(key, (V) Integer.valueOf(1), (current, one) -> (V) Integer.valueOf((Integer) current + 1));
+    }
+
+    public Map<K, V> getAll(@NotNull Iterable<? extends K> keys) {
+        return cache.getAllPresent(keys);
+    }
+
+    public void putAll(@NotNull Map<? extends K, ? extends V> entries) {
+        cache.putAll(entries);
     }
 
     // Метод для удаления записи из кэша по ключу
     public void evict(@NotNull K key) {
-        log.info("Removing from Cache with key {}", key.toString());
         cache.invalidate(key); // Удаление записи из кэша
+        trace("evict", key);
+    }
+
+    // Удаление после коммита текущей транзакции: до коммита параллельное чтение снова закэшировало бы старую строку.
+    // Вне транзакции удаляет сразу
+    public void evictAfterCommit(@NotNull K key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(key);
+            }
+        });
+    }
+
+    // Очистка всего кэша
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    // Немедленное выполнение отложенного обслуживания: вытеснение и удаление истёкших записей
+    public void cleanUp() {
+        cache.cleanUp();
+    }
+
+    // Предел числа записей; для кэшей, ограниченных по весу, — DEFAULT_MAXIMUM_SIZE
+    public long maximumSize() {
+        return cache.policy().eviction()
+                .filter(eviction -> !eviction.isWeighted())
+                .map(Policy.Eviction::getMaximum)
+                .orElse(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    // Метод для получения статистики попаданий и промахов
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    // Выборочная трассировка: при traceSampleRate = N и уровне DEBUG логируется примерно одно обращение из N
+    private void trace(String operation, K key) {
+        var rate = traceSampleRate;
+        if (rate > 0 && log.isDebugEnabled() && ThreadLocalRandom.current().nextInt(rate) == 0) {
+            log.debug("Cache {} {} key {} (sampled 1/{})", name, operation, key, rate);
+        }
+    }
+
+    private static Caffeine<Object, Object> builder(String spec, boolean loading) {
+        if (!loading && spec.contains(REFRESH_AFTER_WRITE)) {
+            throw new IllegalArgumentException("refreshAfterWrite requires a CacheLoader: " + spec);
+        }
+        var builder = Caffeine.from(spec);
+        if (!spec.contains(MAXIMUM_SIZE) && !spec.contains(MAXIMUM_WEIGHT)) {
+            builder.maximumSize(DEFAULT_MAXIMUM_SIZE);
+        }
+        return spec.contains(RECORD_STATS) ? builder : builder.recordStats();
     }
 }
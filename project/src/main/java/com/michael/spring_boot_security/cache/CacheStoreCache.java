@@ -0,0 +1,73 @@
+package com.michael.spring_boot_security.cache;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+// Адаптер CacheStore к org.springframework.cache.Cache для @Cacheable/@CachePut/@CacheEvict; null не кэшируется
+public class CacheStoreCache extends AbstractValueAdaptingCache {
+    private final String name;
+    private final CacheStore<Object, Object> store;
+
+    public CacheStoreCache(@NotNull String name, @NotNull CacheStore<Object, Object> store) {
+        super(false);
+        this.name = name;
+        this.store = store;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CacheStore<Object, Object> getNativeCache() {
+        return store;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return store.get(key);
+    }
+
+    // @Cacheable(sync = true): загрузчик вызывается один раз на ключ, параллельные промахи ждут его результата
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) fromStoreValue(store.computeIfAbsent(key, k -> {
+            try {
+                return valueLoader.call();
+            } catch (Exception exception) {
+                throw new ValueRetrievalException(k, valueLoader, exception);
+            }
+        }));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            store.evict(key);
+        } else {
+            store.put(key, value);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        if (value == null) {
+            return toValueWrapper(store.get(key));
+        }
+        return toValueWrapper(store.putIfAbsent(key, value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        store.evict(key);
+    }
+
+    @Override
+    public void clear() {
+        store.evictAll();
+    }
+}
@@ -0,0 +1,29 @@
+package com.michael.spring_boot_security.cache;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// CacheManager с фиксированным набором кэшей из CacheConfig: неизвестное имя — ошибка конфигурации, а не новый безлимитный кэш
+public class CacheStoreCacheManager implements CacheManager {
+    private final Map<String, CacheStoreCache> caches = new LinkedHashMap<>();
+
+    public CacheStoreCacheManager(@NotNull Map<String, CacheStore<Object, Object>> stores) {
+        stores.forEach((name, store) -> caches.put(name, new CacheStoreCache(name, store)));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.get(name);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+}
@@ -0,0 +1,36 @@
+package com.michael.spring_boot_security.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+// Метрики всех бинов CacheStore и кэшей CacheStoreCacheManager (cache.gets, cache.puts, cache.evictions, cache.size, ...) с тегом cache=<имя>
+@Component
+public class CacheStoreMetrics implements MeterBinder {
+    private final Map<String, CacheStore<?, ?>> caches;
+    private final CacheManager cacheManager;
+    private final int traceSampleRate;
+
+    public CacheStoreMetrics(Map<String, CacheStore<?, ?>> caches,
+                             CacheManager cacheManager,
+                             @Value("${cache.trace.sample-rate:0}") int traceSampleRate) {
+        this.caches = caches;
+        this.cacheManager = cacheManager;
+        this.traceSampleRate = traceSampleRate;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        caches.forEach((name, cache) -> cache.bindTo(registry, name, traceSampleRate));
+        for (var name : cacheManager.getCacheNames()) {
+            var cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof CacheStore<?, ?> store) {
+                store.bindTo(registry, name, traceSampleRate);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.michael.spring_boot_security.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Встроенная шина инвалидаций: доставляет сообщения подписчикам этого процесса синхронно
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+    private final Map<String, List<Consumer<CacheInvalidation>>> listeners = new ConcurrentHashMap<>();
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        listeners.getOrDefault(invalidation.cache(), List.of()).forEach(listener -> listener.accept(invalidation));
+    }
+
+    @Override
+    public void subscribe(String cache, Consumer<CacheInvalidation> listener) {
+        listeners.computeIfAbsent(cache, name -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+}
@@ -0,0 +1,86 @@
+package com.michael.spring_boot_security.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Встроенный общий уровень в памяти процесса: для одного узла, тестов и работы без внешнего хранилища
+public class LocalSharedCacheTier implements SharedCacheTier {
+    private final Map<String, Cache<Object, Object>> caches = new ConcurrentHashMap<>();
+
+    @Override
+    public void register(String cache, Duration timeToLive, long maximumSize) {
+        caches.computeIfAbsent(cache, name -> build(timeToLive, maximumSize));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> V get(String cache, Object key) {
+        var store = caches.get(cache);
+        return store == null ? null : (V) store.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String cache, Object key, Object value, Duration timeToLive) {
+        cache(cache, timeToLive).put(key, value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <V> V putIfAbsent(String cache, Object key, Object value, Duration timeToLive) {
+        return (V) cache(cache, timeToLive).asMap().putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean replace(String cache, Object key, Object expected, Object value, Duration timeToLive) {
+        var map = cache(cache, timeToLive).asMap();
+        if (expected == null) {
+            return value == null ? !map.containsKey(key) : map.putIfAbsent(key, value) == null;
+        }
+        return value == null ? map.remove(key, expected) : map.replace(key, expected, value);
+    }
+
+    @Override
+    public void evict(String cache, Object key) {
+        var store = caches.get(cache);
+        if (store != null) {
+            store.invalidate(key);
+        }
+    }
+
+    @Override
+    public void clear(String cache) {
+        var store = caches.get(cache);
+        if (store != null) {
+            store.invalidateAll();
+        }
+    }
+
+    @Override
+    public int incrementAndGet(String cache, Object key, Duration timeToLive) {
+        return (Integer) cache(cache, timeToLive).asMap().merge(key, 1, (current, one) -> (Integer) current + 1);
+    }
+
+    // Немедленное выполнение отложенного вытеснения и удаления истёкших записей
+    public void cleanUp(String cache) {
+        var store = caches.get(cache);
+        if (store != null) {
+            store.cleanUp();
+        }
+    }
+
+    // Незарегистрированный кэш создаётся первой записью с пределом по умолчанию
+    private Cache<Object, Object> cache(String cache, Duration timeToLive) {
+        return caches.computeIfAbsent(cache, name -> build(timeToLive, CacheStore.DEFAULT_MAXIMUM_SIZE));
+    }
+
+    private static Cache<Object, Object> build(Duration timeToLive, long maximumSize) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(timeToLive)
+                .maximumSize(maximumSize)
+                .build();
+    }
+}
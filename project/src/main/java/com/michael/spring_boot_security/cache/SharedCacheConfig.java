@@ -0,0 +1,22 @@
+package com.michael.spring_boot_security.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Встроенные реализации общего уровня и шины (cache.shared-tier=local, по умолчанию);
+// для внешнего хранилища задайте другое значение и объявите собственные бины SharedCacheTier/CacheInvalidationBus
+@Configuration
+@ConditionalOnProperty(name = "cache.shared-tier", havingValue = "local", matchIfMissing = true)
+public class SharedCacheConfig {
+
+    @Bean
+    public SharedCacheTier sharedCacheTier() {
+        return new LocalSharedCacheTier();
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus() {
+        return new LocalCacheInvalidationBus();
+    }
+}
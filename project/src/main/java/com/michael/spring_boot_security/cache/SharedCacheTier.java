@@ -0,0 +1,25 @@
+package com.michael.spring_boot_security.cache;
+
+import java.time.Duration;
+
+// SPI общего уровня кэша для нескольких узлов (Redis, Hazelcast, ...); значения должны пережить сериализацию удалённой реализации
+public interface SharedCacheTier {
+    // Объявление кэша при создании TieredCacheStore: время жизни записей и предел их числа
+    void register(String cache, Duration timeToLive, long maximumSize);
+
+    <V> V get(String cache, Object key);
+
+    void put(String cache, Object key, Object value, Duration timeToLive);
+
+    // Возвращает уже сохранённое значение или null, если запись добавлена
+    <V> V putIfAbsent(String cache, Object key, Object value, Duration timeToLive);
+
+    // Условная замена: expected == null — только если записи нет, value == null — удалить, если значение не изменилось
+    boolean replace(String cache, Object key, Object expected, Object value, Duration timeToLive);
+
+    void evict(String cache, Object key);
+
+    void clear(String cache);
+
+    int incrementAndGet(String cache, Object key, Duration timeToLive);
+}
@@ -0,0 +1,219 @@
+package com.michael.spring_boot_security.cache;
+
+import com.michael.spring_boot_security.cache.CacheInvalidationBus.CacheInvalidation;
+import jakarta.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+// Двухуровневый кэш: локальный Caffeine перед общим уровнем; каждое изменение рассылается другим узлам, чтобы они сбросили локальную копию.
+// timeToLive — время жизни записи в общем уровне, задаётся отдельно от спецификации локального.
+// Заполнение локального уровня из общего сверяется со счётчиком инвалидаций: значение, прочитанное до пришедшей
+// инвалидации, не остаётся в локальном кэше до конца его TTL
+@Slf4j
+public class TieredCacheStore<K, V> extends CacheStore<K, V> {
+    private static final int INVALIDATION_STRIPES = 64;
+
+    private final String cacheName;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Duration timeToLive;
+    private final SharedCacheTier sharedTier;
+    private final CacheInvalidationBus invalidationBus;
+    // Счётчики инвалидаций по полосам ключей и отдельный — для полной очистки
+    private final AtomicLongArray invalidations = new AtomicLongArray(INVALIDATION_STRIPES);
+    private final AtomicLong clears = new AtomicLong();
+
+    public TieredCacheStore(@NotNull String cacheName, @NotNull String spec, @NotNull Duration timeToLive,
+                            @NotNull SharedCacheTier sharedTier, @NotNull CacheInvalidationBus invalidationBus) {
+        super(spec);
+        this.cacheName = cacheName;
+        this.timeToLive = timeToLive;
+        this.sharedTier = sharedTier;
+        this.invalidationBus = invalidationBus;
+        sharedTier.register(cacheName, timeToLive, maximumSize());
+        invalidationBus.subscribe(cacheName, this::onInvalidation);
+    }
+
+    public TieredCacheStore(@NotNull String cacheName, @NotNull String spec, @NotNull CachePolicy<K, V> policy, @NotNull Duration timeToLive,
+                            @NotNull SharedCacheTier sharedTier, @NotNull CacheInvalidationBus invalidationBus) {
+        super(spec, policy);
+        this.cacheName = cacheName;
+        this.timeToLive = timeToLive;
+        this.sharedTier = sharedTier;
+        this.invalidationBus = invalidationBus;
+        sharedTier.register(cacheName, timeToLive, maximumSize());
+        invalidationBus.subscribe(cacheName, this::onInvalidation);
+    }
+
+    @Override
+    public V get(@NotNull K key) {
+        var value = super.get(key);
+        if (value == null) {
+            var generation = generation(key);
+            value = sharedTier.get(cacheName, key);
+            if (value != null) {
+                populate(key, value, generation);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public void put(@NotNull K key, @NotNull V value) {
+        sharedTier.put(cacheName, key, value, timeToLive);
+        invalidated(key);
+        super.put(key, value);
+        publish(key);
+    }
+
+    @Override
+    public V putIfAbsent(@NotNull K key, @NotNull V value) {
+        var generation = generation(key);
+        V existing = sharedTier.putIfAbsent(cacheName, key, value, timeToLive);
+        populate(key, existing == null ? value : existing, generation);
+        return existing;
+    }
+
+    @Override
+    public V computeIfAbsent(@NotNull K key, @NotNull Function<? super K, ? extends V> loader) {
+        var generation = generation(key);
+        var value = super.computeIfAbsent(key, k -> {
+            V shared = sharedTier.get(cacheName, k);
+            if (shared != null) {
+                return shared;
+            }
+            V loaded = loader.apply(k);
+            if (loaded == null) {
+                return null;
+            }
+            V existing = sharedTier.putIfAbsent(cacheName, k, loaded, timeToLive);
+            return existing == null ? loaded : existing;
+        });
+        if (generation != generation(key)) {
+            super.evict(key);
+        }
+        return value;
+    }
+
+    // Оптимистичный цикл поверх условной замены в общем уровне
+    @Override
+    public V compute(@NotNull K key, @NotNull BiFunction<? super K, ? super V, ? extends V> remapping) {
+        while (true) {
+            V current = sharedTier.get(cacheName, key);
+            V next = remapping.apply(key, current);
+            if (sharedTier.replace(cacheName, key, current, next, timeToLive)) {
+                invalidated(key);
+                if (next == null) {
+                    super.evict(key);
+                } else {
+                    super.put(key, next);
+                }
+                publish(key);
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public V merge(@NotNull K key, @NotNull V value, @NotNull BiFunction<? super V, ? super V, ? extends V> remapping) {
+        return compute(key, (k, current) -> current == null ? value : remapping.apply(current, value));
+    }
+
+    // Счётчик живёт только в общем уровне: лимит попыток действует на все узлы сразу
+    @Override
+    public int incrementAndGet(@NotNull K key) {
+        var count = sharedTier.incrementAndGet(cacheName, key, timeToLive);
+        invalidated(key);
+        super.evict(key);
+        publish(key);
+        return count;
+    }
+
+    @Override
+    public Map<K, V> getAll(@NotNull Iterable<? extends K> keys) {
+        var values = new HashMap<K, V>();
+        for (K key : keys) {
+            var value = get(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    @Override
+    public void putAll(@NotNull Map<? extends K, ? extends V> entries) {
+        entries.forEach(this::put);
+    }
+
+    @Override
+    public void evict(@NotNull K key) {
+        sharedTier.evict(cacheName, key);
+        invalidated(key);
+        super.evict(key);
+        publish(key);
+    }
+
+    @Override
+    public void evictAll() {
+        sharedTier.clear(cacheName);
+        invalidated(null);
+        super.evictAll();
+        publish(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (Objects.equals(nodeId, invalidation.origin())) {
+            return;
+        }
+        invalidated(invalidation.key());
+        if (invalidation.key() == null) {
+            super.evictAll();
+        } else {
+            super.evict((K) invalidation.key());
+        }
+    }
+
+    // Значение кладётся в локальный уровень, а затем снимается, если за время чтения общего уровня пришла инвалидация
+    private void populate(K key, V value, long generation) {
+        super.put(key, value);
+        if (generation != generation(key)) {
+            super.evict(key);
+        }
+    }
+
+    private long generation(Object key) {
+        return invalidations.get(stripe(key)) + clears.get();
+    }
+
+    // Вызывается после изменения общего уровня и до изменения локального: чтение, начатое раньше, не закрепит старое значение
+    private void invalidated(Object key) {
+        if (key == null) {
+            clears.incrementAndGet();
+        } else {
+            invalidations.incrementAndGet(stripe(key));
+        }
+    }
+
+    private static int stripe(Object key) {
+        var hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (INVALIDATION_STRIPES - 1);
+    }
+
+    private void publish(K key) {
+        try {
+            invalidationBus.publish(new CacheInvalidation(nodeId, cacheName, key));
+        } catch (RuntimeException exception) {
+            log.warn("Unable to publish invalidation for cache {}: {}", cacheName, exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.michael.spring_boot_security.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.michael.spring_boot_security.payload.request.LoginRequest;
+import com.michael.spring_boot_security.payload.response.Response;
+import org.springframework.stereotype.Component;
+
+import static com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE;
+
+// Общие ObjectReader/ObjectWriter для фильтров и обработчиков: настройки spring.jackson.* и кэш сериализаторов не пересоздаются на каждый запрос
+@Component
+public class JsonCodec {
+    private final ObjectReader loginRequestReader;
+    private final ObjectWriter responseWriter;
+
+    public JsonCodec(ObjectMapper objectMapper) {
+        this.loginRequestReader = objectMapper.readerFor(LoginRequest.class).with(AUTO_CLOSE_SOURCE);
+        this.responseWriter = objectMapper.writerFor(Response.class);
+    }
+
+    public ObjectReader getLoginRequestReader() {
+        return loginRequestReader;
+    }
+
+    public ObjectWriter getResponseWriter() {
+        return responseWriter;
+    }
+}
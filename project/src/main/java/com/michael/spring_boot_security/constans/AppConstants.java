@@ -4,6 +4,9 @@ public class AppConstants {
     public static final String BASE_PATH = "/**";
     public static final String USER_LOGIN = "/user/login";
     public static final int NINETY_DAYS = 90;
+    public static final int TOTP_PERIOD = 30;
+    public static final int TOTP_DIGITS = 6;
+    public static final int TOTP_ALLOWED_DISCREPANCY = 1;
     public static final int STRENGTH = 12;
     public static final String MICHAEL_APP = "Michael_App";
     public static final String EXISTING_PASSWORD_INCORRECT = "Existing password is incorrect";
@@ -14,11 +17,21 @@ public class AppConstants {
     public static final String AUTHORITY_DELIMITER = ",";
     public static final String EMPTY_VALUE = "empty";
     public static final String AUTHORITIES = "authorities";
+    public static final String PERMISSIONS = "permissions";
+    public static final String ID = "id";
+    public static final String EMAIL = "email";
+    public static final String EPOCH = "epoch";
+    public static final String FAMILY = "family";
+    public static final String ACCOUNT_NON_EXPIRED = "accountNonExpired";
+    public static final String ACCOUNT_NON_LOCKED = "accountNonLocked";
+    public static final String CREDENTIALS_NON_EXPIRED = "credentialsNonExpired";
+    public static final String ENABLED = "enabled";
     public static final String USER_AUTHORITIES = "document:create,document:read,document:update,document:delete";
     public static final String ADMIN_AUTHORITIES = "user:create,user:read,user:update,document:create,document:read,document:update,document:delete";
     public static final String SUPER_ADMIN_AUTHORITIES = "user:create,user:read,user:update,user:delete,document:create,document:read,document:update,document:delete";
     public static final String MANAGER_AUTHORITIES = "document:create,document:read,document:update,document:delete";
     public static final String FILE_NAME = "File-Name";
+    public static final String X_REQUESTED_WITH = "X-Requested-With";
 
 
     public static final String[] PUBLIC_ROUTES = {"/user/reset_password/reset",
@@ -47,6 +60,7 @@ public class AppConstants {
             "/user/verify/account/**",
             "/user/verify/password/**",
             "/user/login/**",
+            "/user/refresh/token/**",
             "/user/register/**",
             "/user/new/password/**",
             //  "document/download/**",
@@ -11,6 +11,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -23,6 +24,8 @@ import java.util.Map;
 
 import static com.michael.spring_boot_security.utility.RequestUtils.getResponse;
 import static java.util.Collections.emptyMap;
+import static org.springframework.http.MediaType.IMAGE_PNG;
+import static org.springframework.http.MediaType.IMAGE_PNG_VALUE;
 
 @RestController
 @RequestMapping("/user")
@@ -80,6 +83,15 @@ public class UserController {
                         HttpStatus.OK));
     }
 
+    @GetMapping(value = "/mfa/qrcode", produces = IMAGE_PNG_VALUE)
+    public ResponseEntity<byte[]> getQrCode(@AuthenticationPrincipal User userPrincipal) {
+        return ResponseEntity.ok()
+                // PNG содержит секрет TOTP: браузер и прокси не должны его сохранять
+                .cacheControl(CacheControl.noStore())
+                .contentType(IMAGE_PNG)
+                .body(userService.getQrCodeImage(userPrincipal.getUserId()));
+    }
+
     @PostMapping("/verify/qrcode")
     public ResponseEntity<Response> verifyQrCode(@RequestBody QrCodeRequest qrCodeRequest,
                                                  HttpServletResponse response,
@@ -95,6 +107,18 @@ public class UserController {
                         HttpStatus.OK));
     }
 
+    @PostMapping("/refresh/token")
+    public ResponseEntity<Response> refreshToken(HttpServletResponse response,
+                                                 HttpServletRequest request) {
+        var user = userService.getUserByUserId(jwtService.refreshToken(request, response).getUserId());
+        return ResponseEntity.ok()
+                .body(getResponse(
+                        request,
+                        Map.of("user", user),
+                        "Token refreshed",
+                        HttpStatus.OK));
+    }
+
     //START- reset password when not logged in
 
     @PostMapping("/reset_password")
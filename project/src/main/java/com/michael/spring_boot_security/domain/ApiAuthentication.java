@@ -1,5 +1,6 @@
 package com.michael.spring_boot_security.domain;
 
+import com.michael.spring_boot_security.enumerations.Permission;
 import com.michael.spring_boot_security.exception.payload.ApiException;
 import org.springframework.security.authentication.AbstractAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
@@ -15,14 +16,21 @@ public class ApiAuthentication extends AbstractAuthenticationToken {
     private String email;
     private String password;
     private boolean authenticated;//флаг
+    private long permissions;// битовая маска прав (Permission)
 
     // Конструктор для создания аутентифицированного токена
     public ApiAuthentication(User user, Collection<? extends GrantedAuthority> authorities) {
+        this(user, authorities, Permission.mask(authorities));
+    }
+
+    // Конструктор с уже вычисленной маской прав (из токена)
+    public ApiAuthentication(User user, Collection<? extends GrantedAuthority> authorities, long permissions) {
         super(authorities); // Передача прав доступа
         this.user = user;
         this.password = PASSWORD_PROTECTED;
         this.email = EMAIL_PROTECTED;
         this.authenticated = true;
+        this.permissions = permissions;
     }
     // Приватный конструктор для создания неаутентифицированного токена
     private ApiAuthentication(String email, String password) {
@@ -42,6 +50,10 @@ public class ApiAuthentication extends AbstractAuthenticationToken {
         return new ApiAuthentication(user, authorities);
     }
 
+    public static ApiAuthentication authenticated(User user, Collection<? extends GrantedAuthority> authorities, long permissions) {
+        return new ApiAuthentication(user, authorities, permissions);
+    }
+
     // Возвращает защищенные учетные данные (пароль)
     @Override
     public Object getCredentials() {
@@ -75,4 +87,9 @@ public class ApiAuthentication extends AbstractAuthenticationToken {
     public String getEmail() {
         return this.email;
     }
+
+    // Маска прав для PermissionAuthorizationManager
+    public long getPermissions() {
+        return this.permissions;
+    }
 }
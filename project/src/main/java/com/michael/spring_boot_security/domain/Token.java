@@ -1,14 +0,0 @@
-package com.michael.spring_boot_security.domain;
-
-import lombok.Builder;
-import lombok.Getter;
-import lombok.Setter;
-
-@Builder
-@Getter
-@Setter
-public class Token {
-    private String access;
-    private String refresh;
-
-}
@@ -3,17 +3,16 @@ package com.michael.spring_boot_security.domain;
 import io.jsonwebtoken.Claims;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.Setter;
 import org.springframework.security.core.GrantedAuthority;
 
 import java.util.List;
 
 @Builder
 @Getter
-@Setter
 public class TokenData {
-    private User user;
-    private Claims claims;
-    private boolean valid;
-    private List<GrantedAuthority> authorities;
+    private final User user;
+    private final Claims claims;
+    private final boolean valid;
+    private final List<GrantedAuthority> authorities;
+    private final long permissions;
 }
@@ -16,7 +16,6 @@ public class User {
     private String phone;
     private String bio;
     private String profileImageURL;
-    private String qrCodeImageUri;
     private String lastLogin;
     private String role;
     private String authorities;
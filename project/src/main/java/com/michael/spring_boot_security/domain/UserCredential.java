@@ -0,0 +1,21 @@
+package com.michael.spring_boot_security.domain;
+
+import com.michael.spring_boot_security.enumerations.Authority;
+
+import java.time.LocalDateTime;
+
+// Проекция для входа: пользователь, роль и хэш пароля одним запросом, без загрузки сущностей
+public record UserCredential(Long id,
+                             String userId,
+                             String firstName,
+                             String lastName,
+                             String email,
+                             String role,
+                             Authority authority,
+                             boolean accountNonExpired,
+                             boolean accountNonLocked,
+                             boolean enabled,
+                             boolean mfa,
+                             String password,
+                             LocalDateTime passwordUpdatedAt) {
+}
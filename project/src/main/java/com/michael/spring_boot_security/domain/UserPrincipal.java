@@ -1,6 +1,5 @@
 package com.michael.spring_boot_security.domain;
 
-import com.michael.spring_boot_security.entity.CredentialEntity;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.AuthorityUtils;
@@ -11,7 +10,7 @@ import java.util.Collection;
 @RequiredArgsConstructor
 public class UserPrincipal  implements UserDetails {
     private final User user;
-    private final CredentialEntity credentialEntity;
+    private final String password;
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -20,7 +19,7 @@ public class UserPrincipal  implements UserDetails {
 
     @Override
     public String getPassword() {
-        return credentialEntity.getPassword();
+        return password;
     }
 
     @Override
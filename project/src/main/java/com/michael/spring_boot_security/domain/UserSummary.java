@@ -0,0 +1,20 @@
+package com.michael.spring_boot_security.domain;
+
+import com.michael.spring_boot_security.enumerations.Authority;
+
+import java.time.LocalDateTime;
+
+// Узкая проекция для проверки токена: только колонки, нужные фильтру авторизации, без bio, телефона и аудита
+public record UserSummary(Long id,
+                          String userId,
+                          String firstName,
+                          String lastName,
+                          String email,
+                          String role,
+                          Authority authority,
+                          boolean accountNonExpired,
+                          boolean accountNonLocked,
+                          boolean enabled,
+                          boolean mfa,
+                          LocalDateTime passwordUpdatedAt) {
+}
@@ -0,0 +1,14 @@
+package com.michael.spring_boot_security.domain;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.concurrent.TimeUnit;
+
+// Проверенные claims вместе с kid ключа подписи: запись из кэша принимается, только пока ключ есть в JwtKeyRing
+public record VerifiedClaims(String keyId, Claims claims) {
+
+    public long nanosUntilExpiration() {
+        var expiration = claims.getExpiration();
+        return expiration == null ? 0 : TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+    }
+}
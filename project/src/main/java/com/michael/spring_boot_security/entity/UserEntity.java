@@ -38,8 +38,9 @@ public class UserEntity extends Auditable {
     private boolean mfa;
     @JsonIgnore
     private String qrCodeSecret;
-    @Column(columnDefinition = "text")
-    private String qrCodeImageUri;
+    // Эпоха безопасности: токены с меньшим значением отклоняются (см. SecurityEpochStore)
+    @JsonIgnore
+    private Long securityEpoch;
 
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinTable(
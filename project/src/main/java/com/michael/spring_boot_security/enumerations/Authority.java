@@ -1,6 +1,16 @@
 package com.michael.spring_boot_security.enumerations;
 
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import static com.michael.spring_boot_security.constans.AppConstants.*;
+import static org.springframework.security.core.authority.AuthorityUtils.commaSeparatedStringToAuthorityList;
 
 public enum Authority {
     USER(USER_AUTHORITIES),
@@ -8,13 +18,40 @@ public enum Authority {
     SUPER_ADMIN(SUPER_ADMIN_AUTHORITIES),
     MANAGER(MANAGER_AUTHORITIES);
 
+    private static final Map<String, Authority> BY_NAME = Stream.of(values())
+            .collect(Collectors.toUnmodifiableMap(Authority::name, Function.identity()));
+
     private final String value;
+    private final long permissions;
+    // Права роли вместе с ROLE_<name>, создаются один раз при загрузке enum
+    private final List<GrantedAuthority> grantedAuthorities;
 
     Authority(String value) {
         this.value = value;
+        this.permissions = Permission.mask(value);
+        this.grantedAuthorities = List.copyOf(commaSeparatedStringToAuthorityList(value + AUTHORITY_DELIMITER + ROLE_PREFIX + name()));
     }
 
     public String getValue() {
         return value;
     }
+
+    public long getPermissions() {
+        return permissions;
+    }
+
+    public List<GrantedAuthority> getGrantedAuthorities() {
+        return grantedAuthorities;
+    }
+
+    public static Optional<Authority> fromName(String role) {
+        return Optional.ofNullable(role == null ? null : BY_NAME.get(role));
+    }
+
+    // Возвращает общий список прав, если роль и её маска совпадают с одной из предопределённых
+    public static Optional<List<GrantedAuthority>> grantedAuthorities(String role, long permissions) {
+        return fromName(role)
+                .filter(authority -> authority.permissions == permissions)
+                .map(Authority::getGrantedAuthorities);
+    }
 }
@@ -0,0 +1,102 @@
+package com.michael.spring_boot_security.enumerations;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.michael.spring_boot_security.constans.AppConstants.AUTHORITY_DELIMITER;
+import static com.michael.spring_boot_security.constans.AppConstants.ROLE_PREFIX;
+
+// Каждое право из AppConstants.*_AUTHORITIES соответствует одному биту маски
+public enum Permission {
+    USER_CREATE("user:create"),
+    USER_READ("user:read"),
+    USER_UPDATE("user:update"),
+    USER_DELETE("user:delete"),
+    DOCUMENT_CREATE("document:create"),
+    DOCUMENT_READ("document:read"),
+    DOCUMENT_UPDATE("document:update"),
+    DOCUMENT_DELETE("document:delete");
+
+    private static final Permission[] PERMISSIONS = values();
+    private static final Map<String, Permission> BY_VALUE = Stream.of(PERMISSIONS)
+            .collect(Collectors.toUnmodifiableMap(Permission::getValue, Function.identity()));
+
+    private final String value;
+    private final long bit;
+
+    Permission(String value) {
+        this.value = value;
+        this.bit = 1L << ordinal();
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public long getBit() {
+        return bit;
+    }
+
+    public static long mask(Permission... permissions) {
+        var mask = 0L;
+        for (var permission : permissions) {
+            mask |= permission.bit;
+        }
+        return mask;
+    }
+
+    public static long mask(String authorities) {
+        var mask = 0L;
+        if (authorities == null) {
+            return mask;
+        }
+        for (var authority : authorities.split(AUTHORITY_DELIMITER)) {
+            var permission = BY_VALUE.get(authority.trim());
+            if (permission != null) {
+                mask |= permission.bit;
+            }
+        }
+        return mask;
+    }
+
+    public static long mask(Collection<? extends GrantedAuthority> authorities) {
+        var mask = 0L;
+        for (var authority : authorities) {
+            var permission = BY_VALUE.get(authority.getAuthority());
+            if (permission != null) {
+                mask |= permission.bit;
+            }
+        }
+        return mask;
+    }
+
+    public static String value(long mask) {
+        var joiner = new StringJoiner(AUTHORITY_DELIMITER);
+        for (var permission : PERMISSIONS) {
+            if ((mask & permission.bit) != 0) {
+                joiner.add(permission.value);
+            }
+        }
+        return joiner.toString();
+    }
+
+    public static List<GrantedAuthority> authorities(long mask, String role) {
+        var authorities = new ArrayList<GrantedAuthority>(Long.bitCount(mask) + 1);
+        for (var permission : PERMISSIONS) {
+            if ((mask & permission.bit) != 0) {
+                authorities.add(new SimpleGrantedAuthority(permission.value));
+            }
+        }
+        authorities.add(new SimpleGrantedAuthority(ROLE_PREFIX + role));
+        return authorities;
+    }
+}
@@ -1,8 +1,10 @@
 package com.michael.spring_boot_security.handler;
 
+import com.michael.spring_boot_security.config.JsonCodec;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.stereotype.Component;
@@ -12,10 +14,13 @@ import java.io.IOException;
 import static com.michael.spring_boot_security.utility.RequestUtils.handleErrorResponse;
 
 @Component
+@RequiredArgsConstructor
 public class ApiAccessDeniedHandler  implements AccessDeniedHandler {
+    private final JsonCodec jsonCodec;
+
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response,
                        AccessDeniedException exception) throws IOException, ServletException {
-        handleErrorResponse(request, response, exception);
+        handleErrorResponse(request, response, exception, jsonCodec.getResponseWriter());
     }
 }
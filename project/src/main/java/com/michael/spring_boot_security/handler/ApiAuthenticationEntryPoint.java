@@ -1,8 +1,10 @@
 package com.michael.spring_boot_security.handler;
 
+import com.michael.spring_boot_security.config.JsonCodec;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.stereotype.Component;
@@ -12,11 +14,14 @@ import java.io.IOException;
 import static com.michael.spring_boot_security.utility.RequestUtils.handleErrorResponse;
 
 @Component
+@RequiredArgsConstructor
 public class ApiAuthenticationEntryPoint  implements AuthenticationEntryPoint {
+    private final JsonCodec jsonCodec;
+
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response,
                          AuthenticationException exception) throws IOException, ServletException {
-        handleErrorResponse(request, response, exception);
+        handleErrorResponse(request, response, exception, jsonCodec.getResponseWriter());
     }
 }
 //TODO: how it's work?
\ No newline at end of file
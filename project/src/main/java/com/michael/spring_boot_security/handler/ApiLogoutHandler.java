@@ -23,6 +23,7 @@ public class ApiLogoutHandler implements LogoutHandler {
                        Authentication authentication) {
         SecurityContextLogoutHandler logoutHandler = new SecurityContextLogoutHandler();
         logoutHandler.logout(request, response, authentication);
+        jwtService.revokeRefreshToken(request);
         jwtService.removeCookie(request, response, ACCESS.getValue());
         jwtService.removeCookie(request, response, REFRESH.getValue());
     }
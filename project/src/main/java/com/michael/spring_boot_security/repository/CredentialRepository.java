@@ -1,7 +1,11 @@
 package com.michael.spring_boot_security.repository;
 
+import com.michael.spring_boot_security.domain.UserCredential;
 import com.michael.spring_boot_security.entity.CredentialEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +13,16 @@ import java.util.Optional;
 @Repository
 public interface CredentialRepository extends JpaRepository<CredentialEntity, Long> {
     Optional<CredentialEntity> getCredentialEntityByUserEntityId(Long userId);
+
+    @Query("SELECT new com.michael.spring_boot_security.domain.UserCredential(" +
+            "u.id, u.userId, u.firstName, u.lastName, u.email, " +
+            "r.name, r.authorities, u.accountNonExpired, u.accountNonLocked, u.enabled, u.mfa, " +
+            "c.password, c.updatedAt) " +
+            "FROM CredentialEntity c JOIN c.userEntity u JOIN u.role r WHERE u.email = :email")
+    Optional<UserCredential> findUserCredentialByEmail(@Param("email") String email);
+
+    // Обновление только хэша, без @PreUpdate: дата смены пароля (срок действия) не меняется
+    @Modifying
+    @Query("UPDATE CredentialEntity c SET c.password = :password WHERE c.userEntity.id = :userId")
+    int updatePasswordHash(@Param("userId") Long userId, @Param("password") String password);
 }
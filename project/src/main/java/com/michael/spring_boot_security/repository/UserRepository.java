@@ -1,9 +1,14 @@
 package com.michael.spring_boot_security.repository;
 
+import com.michael.spring_boot_security.domain.UserSummary;
 import com.michael.spring_boot_security.entity.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +16,38 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
     Optional<UserEntity> findUserEntityByEmail(String email);
 
     Optional<UserEntity> findUserEntityByUserId(String userId);
+
+    @Query("SELECT new com.michael.spring_boot_security.domain.UserSummary(" +
+            "u.id, u.userId, u.firstName, u.lastName, u.email, " +
+            "r.name, r.authorities, u.accountNonExpired, u.accountNonLocked, u.enabled, u.mfa, c.updatedAt) " +
+            "FROM UserEntity u JOIN u.role r JOIN CredentialEntity c ON c.userEntity = u WHERE u.userId = :userId")
+    Optional<UserSummary> findUserSummaryByUserId(@Param("userId") String userId);
+
+    @Query("SELECT u.securityEpoch FROM UserEntity u WHERE u.userId = :userId")
+    Optional<Long> findSecurityEpochByUserId(@Param("userId") String userId);
+
+    // Эпоха только растёт: одновременные изменения на разных узлах не откатывают её назад
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.securityEpoch = :epoch WHERE u.userId = :userId AND (u.securityEpoch IS NULL OR u.securityEpoch < :epoch)")
+    int advanceSecurityEpoch(@Param("userId") String userId, @Param("epoch") Long epoch);
+
+    @Query("SELECT u.userId FROM UserEntity u WHERE u.email = :email")
+    Optional<String> findUserIdByEmail(@Param("email") String email);
+
+    // Смена состояния блокировки: строка меняется только если состояние действительно другое
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.accountNonLocked = false WHERE u.email = :email AND u.accountNonLocked = true")
+    int lockAccount(@Param("email") String email);
+
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.accountNonLocked = true, u.loginAttempts = 0 WHERE u.email = :email AND u.accountNonLocked = false")
+    int unlockAccount(@Param("email") String email);
+
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.loginAttempts = :attempts WHERE u.email = :email")
+    int updateLoginAttempts(@Param("email") String email, @Param("attempts") Integer attempts);
+
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.loginAttempts = :attempts, u.lastLogin = :lastLogin WHERE u.email = :email")
+    int updateLastLogin(@Param("email") String email, @Param("attempts") Integer attempts, @Param("lastLogin") LocalDateTime lastLogin);
 }
@@ -1,6 +1,6 @@
 package com.michael.spring_boot_security.security;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.michael.spring_boot_security.config.JsonCodec;
 import com.michael.spring_boot_security.domain.ApiAuthentication;
 import com.michael.spring_boot_security.domain.User;
 import com.michael.spring_boot_security.enumerations.LoginType;
@@ -24,10 +24,10 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import java.io.IOException;
 import java.util.Map;
 
-import static com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE;
 import static com.michael.spring_boot_security.constans.AppConstants.USER_LOGIN;
 import static com.michael.spring_boot_security.utility.RequestUtils.getResponse;
 import static com.michael.spring_boot_security.utility.RequestUtils.handleErrorResponse;
+import static com.michael.spring_boot_security.utility.RequestUtils.writeResponse;
 import static org.springframework.http.HttpMethod.POST;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
@@ -37,25 +37,32 @@ public class ApiAuthenticationFilter extends AbstractAuthenticationProcessingFil
 
     private final UserService userService;
     private final JwtService jwtService;
+    private final JsonCodec jsonCodec;
+    private final LoginRateLimiter loginRateLimiter;
 
     public ApiAuthenticationFilter(AuthenticationManager authenticationManager,
                                    UserService userService,
-                                   JwtService jwtService) {
+                                   JwtService jwtService,
+                                   JsonCodec jsonCodec,
+                                   LoginRateLimiter loginRateLimiter) {
         super(new AntPathRequestMatcher(USER_LOGIN, POST.name()), authenticationManager);
         this.userService = userService;
         this.jwtService = jwtService;
+        this.jsonCodec = jsonCodec;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
     @Override
     public Authentication attemptAuthentication(HttpServletRequest request, HttpServletResponse response) throws AuthenticationException, IOException, ServletException {
         try {
-            var user = new ObjectMapper().configure(AUTO_CLOSE_SOURCE, true).readValue(request.getInputStream(), LoginRequest.class);
+            LoginRequest user = jsonCodec.getLoginRequestReader().readValue(request.getInputStream());
+            loginRateLimiter.acquireForEmail(user.getEmail());
             userService.updateLoginAttempt(user.getEmail(), LoginType.LOGIN_ATTEMPT);
             var authentication = ApiAuthentication.unauthenticated(user.getEmail(), user.getPassword());
             return getAuthenticationManager().authenticate(authentication);
         } catch (Exception exception) {
             log.error(exception.getMessage());
-            handleErrorResponse(request, response, exception);
+            handleErrorResponse(request, response, exception, jsonCodec.getResponseWriter());
             return null;
         }
     }
@@ -67,19 +74,18 @@ public class ApiAuthenticationFilter extends AbstractAuthenticationProcessingFil
                                             Authentication authentication) throws IOException, ServletException {
         var user = (User) authentication.getPrincipal();
         userService.updateLoginAttempt(user.getEmail(), LoginType.LOGIN_SUCCESS);
-        var httpResponse = user.isMfa() ? sendQrCode(request, user) : sendResponse(request, response, user);
+        // Принципал — облегчённая проекция для проверки пароля; клиент получает полный профиль
+        var profile = userService.getUserByUserId(user.getUserId());
+        var httpResponse = user.isMfa() ? sendQrCode(request, profile) : sendResponse(request, response, user, profile);
         response.setContentType(APPLICATION_JSON_VALUE);
         response.setStatus(HttpStatus.OK.value());
-        var out = response.getOutputStream();
-        var mapper = new ObjectMapper();
-        mapper.writeValue(out, httpResponse);
-        out.flush();
+        writeResponse(response, httpResponse, jsonCodec.getResponseWriter());
     }
 
-    private Response sendResponse(HttpServletRequest request, HttpServletResponse response, User user) {
+    private Response sendResponse(HttpServletRequest request, HttpServletResponse response, User user, User profile) {
         jwtService.addCookie(response, user, TokenType.ACCESS);
         jwtService.addCookie(response, user, TokenType.REFRESH);
-        return getResponse(request, Map.of("user", user), "Login success", HttpStatus.OK);
+        return getResponse(request, Map.of("user", profile), "Login success", HttpStatus.OK);
     }
 
     private Response sendQrCode(HttpServletRequest request, User user) {
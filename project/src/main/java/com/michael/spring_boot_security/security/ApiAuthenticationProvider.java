@@ -1,42 +1,65 @@
 package com.michael.spring_boot_security.security;
 
 import com.michael.spring_boot_security.domain.ApiAuthentication;
+import com.michael.spring_boot_security.domain.UserCredential;
 import com.michael.spring_boot_security.domain.UserPrincipal;
 import com.michael.spring_boot_security.exception.payload.ApiException;
+import com.michael.spring_boot_security.exception.payload.NotFoundException;
+import com.michael.spring_boot_security.service.PasswordHashingService;
 import com.michael.spring_boot_security.service.UserService;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
 import static com.michael.spring_boot_security.constans.AppConstants.NINETY_DAYS;
+import static com.michael.spring_boot_security.utility.UserUtils.fromUserCredential;
 
 @Component
 @RequiredArgsConstructor
 public class ApiAuthenticationProvider implements AuthenticationProvider {
+    public static final String BAD_CREDENTIALS = "Email and/or password incorrect. Please try again";
+
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    // Хэш-заглушка: для несуществующего email выполняется та же проверка BCrypt, время ответа не выдаёт аккаунт
+    private String dummyHash;
+
+    @PostConstruct
+    public void init() {
+        dummyHash = passwordHashingService.encode(UUID.randomUUID().toString());
+    }
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         var apiAuthentication = authenticationFunction.apply(authentication);
-        var user = userService.getUserByEmail(apiAuthentication.getEmail());
-        if (user != null) {
-            var userCredential = userService.getUserCredentialById(user.getId());
-            if (userCredential.getUpdatedAt().minusDays(NINETY_DAYS).isAfter(LocalDateTime.now())) {
+        UserCredential userCredential;
+        try {
+            userCredential = userService.getUserCredentialByEmail(apiAuthentication.getEmail());
+        } catch (NotFoundException exception) {
+            passwordHashingService.matches(apiAuthentication.getPassword(), dummyHash);
+            throw new BadCredentialsException(BAD_CREDENTIALS);
+        }
+        if (userCredential != null) {
+            if (userCredential.passwordUpdatedAt().minusDays(NINETY_DAYS).isAfter(LocalDateTime.now())) {
                 throw new ApiException("Credentials are expired. Please reset you password");
             }
-            var userPrincipal = new UserPrincipal(user, userCredential);
+            var user = fromUserCredential(userCredential);
+            var userPrincipal = new UserPrincipal(user, userCredential.password());
             validAccount.accept(userPrincipal);
-            if (passwordEncoder.matches(apiAuthentication.getPassword(), userCredential.getPassword())) {
+            if (passwordHashingService.matches(apiAuthentication.getPassword(), userCredential.password())) {
+                if (passwordHashingService.upgradeEncoding(userCredential.password())) {
+                    userService.rehashPassword(user.getId(), apiAuthentication.getPassword());
+                }
                 return ApiAuthentication.authenticated(user, userPrincipal.getAuthorities());
-            } else throw new BadCredentialsException("Email and/or password incorrect. Please try again");
+            } else throw new BadCredentialsException(BAD_CREDENTIALS);
         }
         throw new ApiException("Unable to authentication");
     }
@@ -1,5 +1,6 @@
 package com.michael.spring_boot_security.security;
 
+import com.michael.spring_boot_security.config.JsonCodec;
 import com.michael.spring_boot_security.service.JwtService;
 import com.michael.spring_boot_security.service.UserService;
 import lombok.RequiredArgsConstructor;
@@ -14,10 +15,13 @@ import org.springframework.stereotype.Component;
 public class ApiHttpConfigurer extends AbstractHttpConfigurer<ApiHttpConfigurer, HttpSecurity> {
 
     private final AuthorizationFilter authorizationFilter;
+    private final LoginRateLimitFilter loginRateLimitFilter;
+    private final LoginRateLimiter loginRateLimiter;
     private final ApiAuthenticationProvider apiAuthenticationProvider;
     private final UserService userService;
     private final JwtService jwtService;
     private final AuthenticationConfiguration authenticationConfiguration;
+    private final JsonCodec jsonCodec;
 
 
     @Override
@@ -27,11 +31,14 @@ public class ApiHttpConfigurer extends AbstractHttpConfigurer<ApiHttpConfigurer,
 
     @Override
     public void configure(HttpSecurity http) throws Exception {
+        http.addFilterBefore(loginRateLimitFilter, UsernamePasswordAuthenticationFilter.class);
         http.addFilterBefore(authorizationFilter, UsernamePasswordAuthenticationFilter.class);
         http.addFilterAfter(new ApiAuthenticationFilter(
                         authenticationConfiguration.getAuthenticationManager(),
                         userService,
-                        jwtService),
+                        jwtService,
+                        jsonCodec,
+                        loginRateLimiter),
                 UsernamePasswordAuthenticationFilter.class);
     }
 }
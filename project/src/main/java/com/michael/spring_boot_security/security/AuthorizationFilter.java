@@ -1,7 +1,7 @@
 package com.michael.spring_boot_security.security;
 
+import com.michael.spring_boot_security.config.JsonCodec;
 import com.michael.spring_boot_security.domain.ApiAuthentication;
-import com.michael.spring_boot_security.domain.Token;
 import com.michael.spring_boot_security.domain.TokenData;
 import com.michael.spring_boot_security.entity.base.RequestContext;
 import com.michael.spring_boot_security.service.JwtService;
@@ -23,7 +23,6 @@ import java.util.Arrays;
 
 import static com.michael.spring_boot_security.constans.AppConstants.PUBLIC_ROUTES;
 import static com.michael.spring_boot_security.enumerations.TokenType.ACCESS;
-import static com.michael.spring_boot_security.enumerations.TokenType.REFRESH;
 import static com.michael.spring_boot_security.utility.RequestUtils.handleErrorResponse;
 
 @Component
@@ -32,30 +31,23 @@ import static com.michael.spring_boot_security.utility.RequestUtils.handleErrorR
 public class AuthorizationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final JsonCodec jsonCodec;
 
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         try {
-            var accessToken = jwtService.extractToken(request, ACCESS.getValue());
-            if (accessToken.isPresent() && jwtService.getTokenData(accessToken.get(), TokenData::isValid)) {
+            var accessToken = jwtService.getTokenData(request, ACCESS);
+            if (accessToken.isPresent() && accessToken.get().isValid()) {
                 SecurityContextHolder.getContext().setAuthentication(getAuthentication(accessToken.get(), request));
-                RequestContext.setUserId(jwtService.getTokenData(accessToken.get(), TokenData::getUser).getId());
-            } else {//check refresh token
-                var refreshToken = jwtService.extractToken(request, REFRESH.getValue());
-                if (refreshToken.isPresent() && jwtService.getTokenData(refreshToken.get(), TokenData::isValid)) {
-                    var user = jwtService.getTokenData(refreshToken.get(), TokenData::getUser);
-                    SecurityContextHolder.getContext().setAuthentication(getAuthentication(jwtService.createToken(user, Token::getAccess), request));
-                    jwtService.addCookie(response, user, ACCESS);
-                    RequestContext.setUserId(user.getId());
-                } else {
-                    SecurityContextHolder.clearContext();
-                }
+                RequestContext.setUserId(accessToken.get().getUser().getId());
+            } else {// client renews expired access token through /user/refresh/token
+                SecurityContextHolder.clearContext();
             }
             filterChain.doFilter(request, response);
         } catch (Exception exception) {
             log.error(exception.getMessage());
-            handleErrorResponse(request, response, exception);
+            handleErrorResponse(request, response, exception, jsonCodec.getResponseWriter());
         }
     }
 
@@ -69,10 +61,8 @@ public class AuthorizationFilter extends OncePerRequestFilter {
     }
 
 
-    private Authentication getAuthentication(String token, HttpServletRequest request) {
-        var authentication = ApiAuthentication.authenticated(
-                jwtService.getTokenData(token, TokenData::getUser), //??? token data
-                jwtService.getTokenData(token, TokenData::getAuthorities));
+    private Authentication getAuthentication(TokenData tokenData, HttpServletRequest request) {
+        var authentication = ApiAuthentication.authenticated(tokenData.getUser(), tokenData.getAuthorities(), tokenData.getPermissions());
         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         return authentication;
     }
@@ -0,0 +1,49 @@
+package com.michael.spring_boot_security.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// BCrypt с подобранной при старте стоимостью. Перехэширование требуется только для хэшей ниже минимальной стоимости:
+// узлы на разном железе калибруются по-разному, и сравнение с собственной стоимостью перехэшировало бы пароль при каждом входе
+@Slf4j
+public class CalibratedPasswordEncoder extends BCryptPasswordEncoder {
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final int strength;
+    private final int minimumStrength;
+
+    public CalibratedPasswordEncoder(int strength, int minimumStrength) {
+        super(strength);
+        this.strength = strength;
+        this.minimumStrength = minimumStrength;
+    }
+
+    public static CalibratedPasswordEncoder calibrate(long targetMillis, int minStrength, int maxStrength) {
+        var probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode(CALIBRATION_PASSWORD);
+        var start = System.nanoTime();
+        probe.encode(CALIBRATION_PASSWORD);
+        var millis = Math.max((System.nanoTime() - start) / 1_000_000.0, 1.0);
+        // Каждая единица стоимости удваивает время хэширования
+        var strength = minStrength + (int) Math.floor(Math.log(targetMillis / millis) / Math.log(2));
+        strength = Math.max(minStrength, Math.min(maxStrength, strength));
+        log.info("BCrypt strength {} took {} ms, using strength {} for target {} ms", minStrength, Math.round(millis), strength, targetMillis);
+        return new CalibratedPasswordEncoder(strength, minStrength);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(6) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) < minimumStrength;
+        } catch (NumberFormatException exception) {
+            return false;
+        }
+    }
+}
@@ -19,10 +19,12 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 import java.util.List;
-import static com.google.common.net.HttpHeaders.X_REQUESTED_WITH;
 import static org.springframework.http.HttpHeaders.*;
 import static org.springframework.http.HttpMethod.*;
 import static com.michael.spring_boot_security.constans.AppConstants.*;
+import static com.michael.spring_boot_security.enumerations.Permission.DOCUMENT_DELETE;
+import static com.michael.spring_boot_security.enumerations.Permission.USER_DELETE;
+import static com.michael.spring_boot_security.security.PermissionAuthorizationManager.hasPermission;
 
 @Configuration
 @EnableWebSecurity
@@ -46,8 +48,8 @@ public class FilterChainConfiguration {
                 .authorizeHttpRequests(request ->
                         request.requestMatchers(PUBLIC_URLS).permitAll()
                                 .requestMatchers(HttpMethod.OPTIONS).permitAll()
-                                .requestMatchers(HttpMethod.DELETE, "/user/delete/**").hasAnyAuthority("user:delete")
-                                .requestMatchers(HttpMethod.DELETE, "/document/delete/**").hasAnyAuthority("document:delete")
+                                .requestMatchers(HttpMethod.DELETE, "/user/delete/**").access(hasPermission(USER_DELETE))
+                                .requestMatchers(HttpMethod.DELETE, "/document/delete/**").access(hasPermission(DOCUMENT_DELETE))
                                 .anyRequest().authenticated())
                 .with(apiHttpConfigurer, Customizer.withDefaults())
                 .build();
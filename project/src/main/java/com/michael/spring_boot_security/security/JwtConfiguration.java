@@ -12,4 +12,6 @@ public class JwtConfiguration {
     private Long expiration;
     @Value("${jwt.secret}")
     private String secret;
+    @Value("${jwt.stateless-verification:false}")
+    private boolean statelessVerification;
 }
@@ -0,0 +1,107 @@
+package com.michael.spring_boot_security.security;
+
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.security.Key;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+// Хранит декодированные ключи подписи; активный ключ выбирается по заголовку kid
+@Component
+@Slf4j
+public class JwtKeyRing extends JwtConfiguration {
+    private static final String SECRET_DELIMITER = ",";
+    private static final String KEY_ID_DELIMITER = ":";
+
+    @Value("${jwt.key-id:default}")
+    private String keyId;
+    // Старые секреты в формате kid:secret,kid:secret — продолжают проверять выданные токены
+    @Value("${jwt.retired-secrets:}")
+    private String retiredSecrets;
+
+    private final Map<String, SecretKey> keys = new ConcurrentHashMap<>();
+    private volatile SigningKey signingKey;
+    private final JwtParser parser = Jwts.parser()
+            .keyLocator(this::locate)
+            .build();
+
+    @PostConstruct
+    public void init() {
+        if (!isBlank(retiredSecrets)) {
+            var entries = retiredSecrets.split(SECRET_DELIMITER);
+            for (var i = 0; i < entries.length; i++) {
+                var parts = entries[i].trim().split(KEY_ID_DELIMITER, 2);
+                // Запись называется по номеру: сам секрет не должен попасть в лог запуска
+                if (parts.length != 2 || isBlank(parts[0]) || isBlank(parts[1])) {
+                    throw new IllegalStateException("Malformed jwt.retired-secrets entry #" + (i + 1) + ", expected kid:secret");
+                }
+                keys.put(parts[0], decode(parts[1]));
+            }
+        }
+        rotate(keyId, getSecret());
+    }
+
+    public JwtParser getParser() {
+        return parser;
+    }
+
+    public JwtBuilder signWith(JwtBuilder builder) {
+        var current = signingKey;
+        return builder
+                .header().keyId(current.id())
+                .and()
+                .signWith(current.key(), Jwts.SIG.HS512);
+    }
+
+    public void rotate(String kid, String secret) {
+        var key = decode(secret);
+        keys.put(kid, key);
+        signingKey = new SigningKey(kid, key);
+        log.info("JWT signing key rotated to {}", kid);
+    }
+
+    public void retire(String kid) {
+        if (kid.equals(signingKey.id())) {
+            throw new IllegalStateException("Cannot retire the active signing key " + kid);
+        }
+        keys.remove(kid);
+    }
+
+    // Ключ ещё в наборе: токены с выведенным ключом не принимаются и из кэша проверенных токенов
+    public boolean isTrusted(String kid) {
+        return kid != null && keys.containsKey(kid);
+    }
+
+    private Key locate(Header header) {
+        var kid = header instanceof ProtectedHeader protectedHeader ? protectedHeader.getKeyId() : null;
+        if (kid == null) {
+            return signingKey.key();
+        }
+        var key = keys.get(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown JWT key id " + kid);
+        }
+        return key;
+    }
+
+    private static SecretKey decode(String secret) {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret.trim()));
+    }
+
+    private record SigningKey(String id, SecretKey key) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.michael.spring_boot_security.security;
+
+import com.michael.spring_boot_security.cache.CacheStore;
+import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.michael.spring_boot_security.cache.CacheConfig.USERS_CACHE;
+
+// Отложенная запись попыток входа: счётчики и lastLogin копятся в памяти и сбрасываются в базу пачками.
+// После записи lastLogin кэшированные представления пользователя сбрасываются, чтобы профиль не отставал от базы
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoginAttemptTracker {
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheStore<String, User> userSnapshotCache;
+    private final CacheManager cacheManager;
+    private final Map<String, LoginState> pending = new ConcurrentHashMap<>();
+
+    public void recordAttempt(String email, int attempts) {
+        pending.merge(email, new LoginState(attempts, null), LoginState::merge);
+    }
+
+    public void recordSuccess(String email) {
+        pending.merge(email, new LoginState(0, LocalDateTime.now()), LoginState::merge);
+    }
+
+    @Scheduled(fixedDelayString = "${login.attempts.flush-interval:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            var flushed = 0;
+            for (var email : pending.keySet()) {
+                var state = pending.remove(email);
+                if (state == null) {
+                    continue;
+                }
+                if (state.lastLogin() == null) {
+                    userRepository.updateLoginAttempts(email, state.attempts());
+                } else {
+                    userRepository.updateLastLogin(email, state.attempts(), state.lastLogin());
+                    userRepository.findUserIdByEmail(email).ifPresent(this::evictUser);
+                }
+                flushed++;
+            }
+            log.debug("Flushed login state for {} users", flushed);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // Оба удаления выполняются после коммита — users через TransactionAwareCacheManagerProxy
+    private void evictUser(String userId) {
+        userSnapshotCache.evictAfterCommit(userId);
+        var cache = cacheManager.getCache(USERS_CACHE);
+        if (cache != null) {
+            cache.evict(userId);
+        }
+    }
+
+    private record LoginState(int attempts, LocalDateTime lastLogin) {
+        private LoginState merge(LoginState next) {
+            return new LoginState(next.attempts(), next.lastLogin() != null ? next.lastLogin() : lastLogin);
+        }
+    }
+}
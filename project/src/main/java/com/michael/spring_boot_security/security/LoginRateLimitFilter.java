@@ -0,0 +1,48 @@
+package com.michael.spring_boot_security.security;
+
+import com.michael.spring_boot_security.config.JsonCodec;
+import com.michael.spring_boot_security.exception.payload.TooManyRequestsException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+import static com.michael.spring_boot_security.constans.AppConstants.USER_LOGIN;
+import static com.michael.spring_boot_security.utility.RequestUtils.handleErrorResponse;
+import static org.springframework.http.HttpMethod.POST;
+
+// Отсекает перебор по IP до разбора тела запроса, обращения к базе и BCrypt
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+    private static final RequestMatcher LOGIN_REQUEST = new AntPathRequestMatcher(USER_LOGIN, POST.name());
+
+    private final LoginRateLimiter loginRateLimiter;
+    private final JsonCodec jsonCodec;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try {
+            loginRateLimiter.acquireForAddress(request.getRemoteAddr());
+        } catch (TooManyRequestsException exception) {
+            log.warn("Login rate limit exceeded for {}", request.getRemoteAddr());
+            handleErrorResponse(request, response, exception, jsonCodec.getResponseWriter());
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !LOGIN_REQUEST.matches(request);
+    }
+}
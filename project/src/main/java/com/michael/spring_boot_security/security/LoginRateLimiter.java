@@ -0,0 +1,82 @@
+package com.michael.spring_boot_security.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.michael.spring_boot_security.exception.payload.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+// Ограничение частоты входа до проверки пароля: отдельные токен-бакеты по IP клиента и по email
+@Component
+public class LoginRateLimiter {
+    public static final String TOO_MANY_LOGIN_ATTEMPTS = "Too many login attempts. Please try again later";
+
+    private final TokenBuckets addressBuckets;
+    private final TokenBuckets emailBuckets;
+
+    public LoginRateLimiter(@Value("${login.rate-limit.ip.burst:20}") int addressBurst,
+                            @Value("${login.rate-limit.ip.refill-per-minute:10}") int addressRefill,
+                            @Value("${login.rate-limit.email.burst:5}") int emailBurst,
+                            @Value("${login.rate-limit.email.refill-per-minute:5}") int emailRefill,
+                            @Value("${login.rate-limit.maximum-keys:100000}") long maximumKeys) {
+        this.addressBuckets = new TokenBuckets(addressBurst, addressRefill, maximumKeys);
+        this.emailBuckets = new TokenBuckets(emailBurst, emailRefill, maximumKeys);
+    }
+
+    public void acquireForAddress(String address) {
+        acquire(addressBuckets, address);
+    }
+
+    public void acquireForEmail(String email) {
+        acquire(emailBuckets, email == null ? null : email.trim().toLowerCase(Locale.ROOT));
+    }
+
+    private static void acquire(TokenBuckets buckets, String key) {
+        if (key == null) {
+            return;
+        }
+        var waitNanos = buckets.tryAcquire(key);
+        if (waitNanos > 0) {
+            throw new TooManyRequestsException(TOO_MANY_LOGIN_ATTEMPTS, Math.max(1, NANOSECONDS.toSeconds(waitNanos) + 1));
+        }
+    }
+
+    // Токен-бакет без блокировок (GCRA): на ключ хранится одно значение — момент, когда бакет снова заполнится
+    static final class TokenBuckets {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final Cache<String, AtomicLong> buckets;
+
+        TokenBuckets(int burst, int refillPerMinute, long maximumKeys) {
+            this.intervalNanos = MINUTES.toNanos(1) / Math.max(1, refillPerMinute);
+            this.burstNanos = intervalNanos * Math.max(1, burst);
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maximumKeys)
+                    .expireAfterAccess(burstNanos, TimeUnit.NANOSECONDS)
+                    .build();
+        }
+
+        // 0 — токен выдан, иначе сколько наносекунд ждать следующего
+        long tryAcquire(String key) {
+            var bucket = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+            while (true) {
+                var now = System.nanoTime();
+                var full = bucket.get();
+                var next = Math.max(full, now) + intervalNanos;
+                if (next - now > burstNanos) {
+                    return next - now - burstNanos;
+                }
+                if (bucket.compareAndSet(full, next)) {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.michael.spring_boot_security.security;
+
+import com.michael.spring_boot_security.domain.ApiAuthentication;
+import com.michael.spring_boot_security.enumerations.Permission;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+// Проверка прав одной операцией AND над битовой маской вместо перебора коллекции authorities
+public final class PermissionAuthorizationManager<T> implements AuthorizationManager<T> {
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final long required;
+    private final boolean all;
+
+    private PermissionAuthorizationManager(long required, boolean all) {
+        this.required = required;
+        this.all = all;
+    }
+
+    public static <T> PermissionAuthorizationManager<T> hasPermission(Permission permission) {
+        return new PermissionAuthorizationManager<>(permission.getBit(), true);
+    }
+
+    public static <T> PermissionAuthorizationManager<T> hasAnyPermission(Permission... permissions) {
+        return new PermissionAuthorizationManager<>(Permission.mask(permissions), false);
+    }
+
+    public static <T> PermissionAuthorizationManager<T> hasAllPermissions(Permission... permissions) {
+        return new PermissionAuthorizationManager<>(Permission.mask(permissions), true);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, T object) {
+        var current = authentication.get();
+        if (current == null || !current.isAuthenticated()) {
+            return DENIED;
+        }
+        var granted = current instanceof ApiAuthentication apiAuthentication
+                ? apiAuthentication.getPermissions()
+                : Permission.mask(current.getAuthorities());
+        var matched = granted & required;
+        return (all ? matched == required : matched != 0) ? GRANTED : DENIED;
+    }
+}
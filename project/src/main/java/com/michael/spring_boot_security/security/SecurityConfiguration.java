@@ -1,8 +1,8 @@
 package com.michael.spring_boot_security.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import static com.michael.spring_boot_security.constans.AppConstants.STRENGTH;
@@ -11,7 +11,11 @@ import static com.michael.spring_boot_security.constans.AppConstants.STRENGTH;
 public class SecurityConfiguration {
 
     @Bean
-    public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder(STRENGTH);
+    public PasswordEncoder passwordEncoder(@Value("${password.hashing.target-millis:0}") long targetMillis,
+                                           @Value("${password.hashing.min-strength:10}") int minStrength,
+                                           @Value("${password.hashing.max-strength:16}") int maxStrength) {
+        return targetMillis > 0
+                ? CalibratedPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength)
+                : new CalibratedPasswordEncoder(STRENGTH, STRENGTH);
     }
 }
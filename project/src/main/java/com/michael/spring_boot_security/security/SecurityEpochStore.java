@@ -0,0 +1,36 @@
+package com.michael.spring_boot_security.security;
+
+import com.michael.spring_boot_security.cache.CacheStore;
+import com.michael.spring_boot_security.repository.UserRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Эпоха безопасности пользователя: токены, выпущенные до последнего изменения роли, блокировки или пароля, отклоняются.
+// Значение хранится в users.security_epoch и переживает перезапуск; securityEpochCache (общий при cache.mode=tiered)
+// избавляет проверку токена от запроса в базу
+@Component
+@RequiredArgsConstructor
+public class SecurityEpochStore {
+    private final CacheStore<String, Long> securityEpochCache;
+    private final UserRepository userRepository;
+
+    public long current(String userId) {
+        return securityEpochCache.computeIfAbsent(userId, id -> userRepository.findSecurityEpochByUserId(id).orElse(0L));
+    }
+
+    @Transactional
+    public void bump(String userId) {
+        var epoch = Math.max(current(userId) + 1, System.currentTimeMillis());
+        if (userRepository.advanceSecurityEpoch(userId, epoch) > 0) {
+            securityEpochCache.put(userId, epoch);
+        } else {
+            // Другой узел уже записал большую эпоху — следующее чтение возьмёт её из базы
+            securityEpochCache.evict(userId);
+        }
+    }
+
+    public boolean isCurrent(String userId, Long epoch) {
+        return epoch != null && epoch >= current(userId);
+    }
+}
@@ -0,0 +1,99 @@
+package com.michael.spring_boot_security.security;
+
+import com.michael.spring_boot_security.enumerations.TokenType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import static com.michael.spring_boot_security.enumerations.TokenType.ACCESS;
+import static com.michael.spring_boot_security.enumerations.TokenType.REFRESH;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.COOKIE;
+
+// Один проход по заголовку Cookie на запрос: достаёт access и refresh токены без создания объектов Cookie
+@Component
+public class TokenExtractor {
+    public static final String BEARER_PREFIX = "Bearer ";
+    private static final String TOKENS_ATTRIBUTE = TokenExtractor.class.getName();
+    private static final String ACCESS_NAME = ACCESS.getValue();
+    private static final String REFRESH_NAME = REFRESH.getValue();
+
+    public String extract(HttpServletRequest request, TokenType tokenType) {
+        var tokens = extract(request);
+        return tokenType == ACCESS ? tokens.access() : tokens.refresh();
+    }
+
+    public Tokens extract(HttpServletRequest request) {
+        if (request.getAttribute(TOKENS_ATTRIBUTE) instanceof Tokens tokens) {
+            return tokens;
+        }
+        var values = new String[2];
+        var headers = request.getHeaders(COOKIE);
+        while (headers != null && headers.hasMoreElements()) {
+            parseCookieHeader(headers.nextElement(), values);
+        }
+        var authorization = request.getHeader(AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            var bearer = authorization.substring(BEARER_PREFIX.length()).trim();
+            // Пустой Bearer не затирает access-токен из cookie
+            if (!bearer.isEmpty()) {
+                values[0] = bearer;
+            }
+        }
+        var tokens = new Tokens(values[0], values[1]);
+        request.setAttribute(TOKENS_ATTRIBUTE, tokens);
+        return tokens;
+    }
+
+    private static void parseCookieHeader(String header, String[] values) {
+        var length = header.length();
+        var start = 0;
+        while (start < length) {
+            var end = header.indexOf(';', start);
+            if (end < 0) {
+                end = length;
+            }
+            var separator = header.indexOf('=', start);
+            if (separator > 0 && separator < end) {
+                var nameStart = skipWhitespace(header, start, separator);
+                var nameLength = trimWhitespace(header, nameStart, separator) - nameStart;
+                if (matches(header, nameStart, nameLength, ACCESS_NAME)) {
+                    values[0] = value(header, separator + 1, end);
+                } else if (matches(header, nameStart, nameLength, REFRESH_NAME)) {
+                    values[1] = value(header, separator + 1, end);
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    private static boolean matches(String header, int offset, int length, String name) {
+        return length == name.length() && header.regionMatches(offset, name, 0, length);
+    }
+
+    private static String value(String header, int start, int end) {
+        var valueStart = skipWhitespace(header, start, end);
+        var valueEnd = trimWhitespace(header, valueStart, end);
+        if (valueEnd - valueStart >= 2 && header.charAt(valueStart) == '"' && header.charAt(valueEnd - 1) == '"') {
+            valueStart++;
+            valueEnd--;
+        }
+        return header.substring(valueStart, valueEnd);
+    }
+
+    private static int skipWhitespace(String header, int start, int end) {
+        while (start < end && header.charAt(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimWhitespace(String header, int start, int end) {
+        while (end > start && header.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    public record Tokens(String access, String refresh) {
+    }
+}
@@ -1,6 +1,5 @@
 package com.michael.spring_boot_security.service;
 
-import com.michael.spring_boot_security.domain.Token;
 import com.michael.spring_boot_security.domain.TokenData;
 import com.michael.spring_boot_security.domain.User;
 import com.michael.spring_boot_security.enumerations.TokenType;
@@ -11,7 +10,11 @@ import java.util.Optional;
 import java.util.function.Function;
 
 public interface JwtService {
-    String createToken(User user, Function<Token, String> tokenFunction);
+    String createToken(User user, TokenType tokenType);
+
+    User refreshToken(HttpServletRequest request, HttpServletResponse response);
+
+    void revokeRefreshToken(HttpServletRequest request);
 
     Optional<String> extractToken(HttpServletRequest request, String cookieName);
 
@@ -19,5 +22,7 @@ public interface JwtService {
 
     <T> T getTokenData(String token, Function<TokenData, T> tokenFunction);
 
+    Optional<TokenData> getTokenData(HttpServletRequest request, TokenType tokenType);
+
     void removeCookie(HttpServletRequest request, HttpServletResponse response, String cookieName);
 }
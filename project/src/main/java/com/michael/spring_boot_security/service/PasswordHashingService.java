@@ -0,0 +1,9 @@
+package com.michael.spring_boot_security.service;
+
+public interface PasswordHashingService {
+    String encode(CharSequence rawPassword);
+
+    boolean matches(CharSequence rawPassword, String encodedPassword);
+
+    boolean upgradeEncoding(String encodedPassword);
+}
@@ -0,0 +1,5 @@
+package com.michael.spring_boot_security.service;
+
+public interface TotpService {
+    boolean verify(String userId, String secret, String code);
+}
@@ -1,6 +1,7 @@
 package com.michael.spring_boot_security.service;
 
 import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.domain.UserCredential;
 import com.michael.spring_boot_security.entity.CredentialEntity;
 import com.michael.spring_boot_security.entity.RoleEntity;
 import com.michael.spring_boot_security.enumerations.LoginType;
@@ -22,14 +23,22 @@ public interface UserService {
 
     User getUserByUserId(String userId);
 
+    User getUserSummary(String userId);
+
     User getUserByEmail(String email);
 
     CredentialEntity getUserCredentialById(Long UserId);
 
+    UserCredential getUserCredentialByEmail(String email);
+
+    void rehashPassword(Long userId, String rawPassword);
+
     User setUpMfa(Long id);
 
     User cancelMfa(Long id);
 
+    byte[] getQrCodeImage(String userId);
+
     User verifyQrCode(String userId, String qrCode);
 
     void resetPassword(String email);
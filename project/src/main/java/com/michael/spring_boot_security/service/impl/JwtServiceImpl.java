@@ -1,18 +1,25 @@
 package com.michael.spring_boot_security.service.impl;
 
-import com.michael.spring_boot_security.domain.Token;
+import com.michael.spring_boot_security.cache.CacheStore;
 import com.michael.spring_boot_security.domain.TokenData;
 import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.domain.VerifiedClaims;
+import com.michael.spring_boot_security.enumerations.Authority;
+import com.michael.spring_boot_security.enumerations.Permission;
 import com.michael.spring_boot_security.enumerations.TokenType;
+import com.michael.spring_boot_security.exception.payload.ApiException;
 import com.michael.spring_boot_security.functions.TriConsumer;
 import com.michael.spring_boot_security.security.JwtConfiguration;
+import com.michael.spring_boot_security.security.JwtKeyRing;
+import com.michael.spring_boot_security.security.SecurityEpochStore;
+import com.michael.spring_boot_security.security.TokenExtractor;
 import com.michael.spring_boot_security.service.JwtService;
 import com.michael.spring_boot_security.service.UserService;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.UnsupportedJwtException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -21,93 +28,75 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.util.*;
 import java.util.function.BiFunction;
 import java.util.function.Function;
-import java.util.function.Supplier;
 
 import static com.michael.spring_boot_security.constans.AppConstants.*;
 import static com.michael.spring_boot_security.enumerations.TokenType.ACCESS;
 import static com.michael.spring_boot_security.enumerations.TokenType.REFRESH;
+import static com.michael.spring_boot_security.validations.UserValidation.verifyAccountStatus;
 import static io.jsonwebtoken.Header.JWT_TYPE;
 import static io.jsonwebtoken.Header.TYPE;
-import static java.util.Arrays.stream;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Optional.empty;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.springframework.boot.web.server.Cookie.SameSite.NONE;
-import static org.springframework.security.core.authority.AuthorityUtils.commaSeparatedStringToAuthorityList;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class JwtServiceImpl extends JwtConfiguration implements JwtService {
+    public static final String INVALID_REFRESH_TOKEN = "Invalid refresh token. Please log in again";
+    private static final String TOKEN_DATA_ATTRIBUTE = TokenData.class.getName() + ".";
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(JwtServiceImpl::newDigest);
 
     private final UserService userService;
+    private final JwtKeyRing keyRing;
+    private final CacheStore<String, VerifiedClaims> tokenCache;
+    private final SecurityEpochStore epochStore;
+    private final CacheStore<String, String> refreshTokenFamilies;
+    private final TokenExtractor tokenExtractor;
 
-    private final Supplier<SecretKey> key = () -> Keys.hmacShaKeyFor(Decoders.BASE64.decode(getSecret()));
-
-    private final Function<String, Claims> claimsFunction = token ->
-            Jwts.parser()
-                    .verifyWith(key.get())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-
-    private final Function<String, String> subject = token -> getClaimsValue(token, Claims::getSubject);
-
-
-    private final BiFunction<HttpServletRequest, String, Optional<String>> extractToken = (request, cookieName) ->
-            Optional.of(stream(request.getCookies() == null ? new Cookie[]{new Cookie(EMPTY_VALUE, EMPTY_VALUE)} : request.getCookies())
-                            .filter(cookie -> Objects.equals(cookieName, cookie.getName()))
-                            .map(Cookie::getValue)
-                            .findAny())
-                    .orElse(empty());
-
-
-    private final BiFunction<HttpServletRequest, String, Optional<Cookie>> extractCookie = (request, cookieName) ->
-            Optional.of(stream(request.getCookies() == null ? new Cookie[]{new Cookie(EMPTY_VALUE, EMPTY_VALUE)} : request.getCookies())
-                            .filter(cookie -> Objects.equals(cookieName, cookie.getName()))
-                            .findAny())
-                    .orElse(empty());
-
-    private final Supplier<JwtBuilder> builder = () ->
-            Jwts.builder()
-                    .header().add(Map.of(TYPE, JWT_TYPE))
-                    .and()
-                    .audience().add(MICHAEL_APP)
-                    .and()
-                    .id(UUID.randomUUID().toString())
-                    .issuedAt(Date.from(Instant.now()))
-                    .notBefore(new Date())
-                    .signWith(key.get(), Jwts.SIG.HS512);
 
     private final BiFunction<User, TokenType, String> buildToken = (user, type) ->
             Objects.equals(type, ACCESS) ?
-                    builder.get()
+                    builder()
                             .subject(user.getUserId())
-                            .claim(AUTHORITIES, user.getAuthorities())
+                            .claim(ID, user.getId())
+                            .claim(EMAIL, user.getEmail())
+                            .claim(PERMISSIONS, Permission.mask(user.getAuthorities()))
                             .claim(ROLE, user.getRole())
+                            .claim(ACCOUNT_NON_EXPIRED, user.isAccountNonExpired())
+                            .claim(ACCOUNT_NON_LOCKED, user.isAccountNonLocked())
+                            .claim(CREDENTIALS_NON_EXPIRED, user.isCredentialsNonExpired())
+                            .claim(ENABLED, user.isEnabled())
+                            .claim(EPOCH, epoch(user.getUserId()))
                             .expiration(Date.from(Instant.now().plusSeconds(getExpiration())))
                             .compact() :
-                    builder.get()
-                            .subject(user.getUserId())
-                            .expiration(Date.from(Instant.now().plusSeconds(getExpiration())))
-                            .compact();
+                    refreshToken(user, UUID.randomUUID().toString());
+
+
+    private final BiFunction<Claims, User, Long> permissions = (claims, user) -> {
+        if (claims.containsKey(PERMISSIONS)) {
+            return claims.get(PERMISSIONS, Long.class);
+        }
+        return Permission.mask(claims.containsKey(AUTHORITIES) ? claims.get(AUTHORITIES, String.class) : user == null ? null : user.getAuthorities());
+    };
 
 
-    private Function<String, List<GrantedAuthority>> authorities = token ->
-            commaSeparatedStringToAuthorityList(new StringJoiner(AUTHORITY_DELIMITER)
-                    .add(claimsFunction.apply(token).get(AUTHORITIES, String.class))
-                    .add(ROLE_PREFIX + claimsFunction.apply(token).get(ROLE, String.class)).toString());
+    private final BiFunction<String, Long, List<GrantedAuthority>> authorities = (role, permissions) ->
+            Authority.grantedAuthorities(role, permissions)
+                    .orElseGet(() -> Permission.authorities(permissions, role));
 
 
-    private final TriConsumer<HttpServletResponse, User, TokenType> addCookie = ((response, user, type) -> {
+    private final TriConsumer<HttpServletResponse, TokenType, String> addCookie = ((response, type, token) -> {
         switch (type) {
             case ACCESS -> {
-                var accessToken = createToken(user, Token::getAccess);
-                var cookie = new Cookie(type.getValue(), accessToken);
+                var cookie = new Cookie(type.getValue(), token);
                 cookie.setHttpOnly(true);
                 // cookie.setSecure(true);
                 cookie.setMaxAge(2 * 60);
@@ -116,8 +105,7 @@ public class JwtServiceImpl extends JwtConfiguration implements JwtService {
                 response.addCookie(cookie);
             }
             case REFRESH -> {
-                var refreshToken = createToken(user, Token::getRefresh);
-                var cookie = new Cookie(type.getValue(), refreshToken);
+                var cookie = new Cookie(type.getValue(), token);
                 cookie.setHttpOnly(true);
                 cookie.setSecure(true);
                 cookie.setMaxAge(2 * 60 * 60);
@@ -128,45 +116,196 @@ public class JwtServiceImpl extends JwtConfiguration implements JwtService {
         }
     });
 
-    private <T> T getClaimsValue(String token, Function<Claims, T> claims) {
-        return claimsFunction.andThen(claims).apply(token);
+    private Claims claims(String token) {
+        var tokenHash = HexFormat.of().formatHex(SHA_256.get().digest(token.getBytes(UTF_8)));
+        var verified = tokenCache.get(tokenHash);
+        // Попадание в кэш засчитывается, только пока ключ подписи не выведен из JwtKeyRing
+        if (verified != null && keyRing.isTrusted(verified.keyId()) && verified.claims().getExpiration().after(new Date())) {
+            return verified.claims();
+        }
+        var jws = keyRing.getParser().parseSignedClaims(token);
+        var keyId = jws.getHeader().getKeyId();
+        if (keyId != null) {
+            tokenCache.put(tokenHash, new VerifiedClaims(keyId, jws.getPayload()));
+        }
+        return jws.getPayload();
+    }
+
+    private String refreshToken(User user, String family) {
+        var tokenId = UUID.randomUUID().toString();
+        refreshTokenFamilies.put(family, tokenId);
+        return refreshToken(user, family, tokenId);
+    }
+
+    private String refreshToken(User user, String family, String tokenId) {
+        return builder()
+                .id(tokenId)
+                .subject(user.getUserId())
+                .claim(FAMILY, family)
+                .claim(EPOCH, epoch(user.getUserId()))
+                .expiration(Date.from(Instant.now().plusSeconds(getExpiration())))
+                .compact();
+    }
+
+    private JwtBuilder builder() {
+        return keyRing.signWith(Jwts.builder()
+                .header().add(Map.of(TYPE, JWT_TYPE))
+                .and()
+                .audience().add(MICHAEL_APP)
+                .and()
+                .id(UUID.randomUUID().toString())
+                .issuedAt(Date.from(Instant.now()))
+                .notBefore(new Date()));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private long epoch(String userId) {
+        return epochStore.current(userId);
+    }
+
+    private User userFromClaims(Claims claims, long permissions) {
+        var role = claims.get(ROLE, String.class);
+        return User.builder()
+                .id(claims.get(ID, Long.class))
+                .userId(claims.getSubject())
+                .email(claims.get(EMAIL, String.class))
+                .role(role)
+                .authorities(Authority.fromName(role)
+                        .filter(authority -> authority.getPermissions() == permissions)
+                        .map(Authority::getValue)
+                        .orElseGet(() -> Permission.value(permissions)))
+                .accountNonExpired(Boolean.TRUE.equals(claims.get(ACCOUNT_NON_EXPIRED, Boolean.class)))
+                .accountNonLocked(Boolean.TRUE.equals(claims.get(ACCOUNT_NON_LOCKED, Boolean.class)))
+                .credentialsNonExpired(Boolean.TRUE.equals(claims.get(CREDENTIALS_NON_EXPIRED, Boolean.class)))
+                .enabled(Boolean.TRUE.equals(claims.get(ENABLED, Boolean.class)))
+                .build();
+    }
+
+    private TokenData tokenData(String token, TokenType tokenType) {
+        var claims = claims(token);
+        // Тип токена определяется наличием FAMILY: refresh-токен не принимается как access, и наоборот
+        if (claims.containsKey(FAMILY) != (tokenType == REFRESH)) {
+            throw new UnsupportedJwtException("Token is not a " + tokenType.getValue() + " token");
+        }
+        // Refresh-токен всегда сверяется с текущим состоянием пользователя, даже при stateless-проверке access-токенов
+        if (isStatelessVerification() && tokenType == ACCESS && claims.containsKey(EPOCH)) {
+            var permissionMask = permissions.apply(claims, null);
+            var user = userFromClaims(claims, permissionMask);
+            return tokenData(claims, user, permissionMask, epochStore.isCurrent(user.getUserId(), claims.get(EPOCH, Long.class)));
+        }
+        var user = userService.getUserSummary(claims.getSubject());
+        return tokenData(claims, user, permissions.apply(claims, user), Objects.equals(user.getUserId(), claims.getSubject()));
+    }
+
+    private TokenData tokenData(Claims claims, User user, long permissions, boolean valid) {
+        var role = claims.containsKey(ROLE) ? claims.get(ROLE, String.class) : user.getRole();
+        return TokenData.builder()
+                .valid(valid)
+                .authorities(authorities.apply(role, permissions))
+                .permissions(permissions)
+                .claims(claims)
+                .user(user)
+                .build();
     }
 
 
     @Override
-    public String createToken(User user, Function<Token, String> tokenFunction) {
-        var token = Token.builder()
-                .access(buildToken.apply(user, ACCESS))
-                .refresh(buildToken.apply(user, REFRESH)).build();
-        return tokenFunction.apply(token);
+    public String createToken(User user, TokenType tokenType) {
+        return buildToken.apply(user, tokenType);
+    }
+
+    @Override
+    public User refreshToken(HttpServletRequest request, HttpServletResponse response) {
+        var tokenData = getTokenData(request, REFRESH)
+                .filter(TokenData::isValid)
+                .orElseThrow(() -> new ApiException(INVALID_REFRESH_TOKEN));
+        var user = tokenData.getUser();
+        var family = tokenData.getClaims().get(FAMILY, String.class);
+        if (family == null) {
+            throw new ApiException(INVALID_REFRESH_TOKEN);
+        }
+        // Смена пароля или роли и блокировка поднимают эпоху: выданные до неё refresh-токены отзываются вместе с семейством
+        if (!epochStore.isCurrent(user.getUserId(), tokenData.getClaims().get(EPOCH, Long.class))) {
+            refreshTokenFamilies.evict(family);
+            throw new ApiException(INVALID_REFRESH_TOKEN);
+        }
+        verifyAccountStatus(user);
+        var presentedId = tokenData.getClaims().getId();
+        var tokenId = UUID.randomUUID().toString();
+        // Проверка и ротация — одна атомарная операция: из параллельных повторов одного токена проходит только один,
+        // при несовпадении семейство удаляется целиком
+        var rotatedId = refreshTokenFamilies.compute(family, (key, currentId) -> Objects.equals(currentId, presentedId) ? tokenId : null);
+        if (!tokenId.equals(rotatedId)) {
+            log.warn("Refresh token reuse detected for user {}", user.getUserId());
+            throw new ApiException(INVALID_REFRESH_TOKEN);
+        }
+        addCookie.accept(response, ACCESS, buildToken.apply(user, ACCESS));
+        addCookie.accept(response, REFRESH, refreshToken(user, family, tokenId));
+        return user;
+    }
+
+    @Override
+    public void revokeRefreshToken(HttpServletRequest request) {
+        getTokenData(request, REFRESH)
+                .map(tokenData -> tokenData.getClaims().get(FAMILY, String.class))
+                .ifPresent(refreshTokenFamilies::evict);
     }
 
     @Override
     public Optional<String> extractToken(HttpServletRequest request, String cookieName) {
-        return extractToken.apply(request, cookieName);
+        var tokens = tokenExtractor.extract(request);
+        if (ACCESS.getValue().equals(cookieName)) {
+            return Optional.ofNullable(tokens.access());
+        }
+        if (REFRESH.getValue().equals(cookieName)) {
+            return Optional.ofNullable(tokens.refresh());
+        }
+        return empty();
     }
 
     @Override
     public void addCookie(HttpServletResponse response, User user, TokenType tokenType) {
-        addCookie.accept(response, user, tokenType);
+        addCookie.accept(response, tokenType, createToken(user, tokenType));
     }
 
     @Override
     public <T> T getTokenData(String token, Function<TokenData, T> tokenFunction) {
-        return tokenFunction.apply(TokenData.builder()
-                .valid(Objects.equals(userService.getUserByUserId(subject.apply(token)).getUserId(), claimsFunction.apply(token).getSubject()))
-                .authorities(authorities.apply(token))
-                .claims(claimsFunction.apply(token))
-                .user(userService.getUserByUserId(subject.apply(token)))
-                .build());
+        return tokenFunction.apply(tokenData(token, ACCESS));
+    }
+
+    @Override
+    public Optional<TokenData> getTokenData(HttpServletRequest request, TokenType tokenType) {
+        var attribute = TOKEN_DATA_ATTRIBUTE + tokenType.name();
+        if (request.getAttribute(attribute) instanceof TokenData data) {
+            return Optional.of(data);
+        }
+        var token = tokenExtractor.extract(request, tokenType);
+        if (token == null) {
+            return empty();
+        }
+        try {
+            var data = tokenData(token, tokenType);
+            request.setAttribute(attribute, data);
+            return Optional.of(data);
+        } catch (JwtException | IllegalArgumentException exception) {
+            log.debug("Rejected {} token: {}", tokenType.getValue(), exception.getMessage());
+            return empty();
+        }
     }
 
     @Override
     public void removeCookie(HttpServletRequest request, HttpServletResponse response, String cookieName) {
-        var optionalCookie = extractCookie.apply(request, cookieName);
-        if (optionalCookie.isPresent()) {
-            var cookie = optionalCookie.get();
+        if (extractToken(request, cookieName).isPresent()) {
+            var cookie = new Cookie(cookieName, EMPTY);
             cookie.setMaxAge(0);
+            cookie.setPath("/");
             response.addCookie(cookie);
         }
     }
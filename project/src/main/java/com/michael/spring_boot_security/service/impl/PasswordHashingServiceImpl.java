@@ -0,0 +1,102 @@
+package com.michael.spring_boot_security.service.impl;
+
+import com.michael.spring_boot_security.exception.payload.ApiException;
+import com.michael.spring_boot_security.exception.payload.ServiceUnavailableException;
+import com.michael.spring_boot_security.service.PasswordHashingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+
+// BCrypt выполняется в отдельном пуле размером с число ядер, чтобы не занимать потоки Tomcat.
+// Прерывание BCrypt не останавливает: задача, которую вызывающий поток перестал ждать, досчитывает до конца.
+// Поэтому по таймауту задача снимается из очереди, а очередь ограничена queue-capacity — брошенной работы
+// не больше, чем потоков пула плюс мест в очереди
+@Service
+@Slf4j
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+    public static final String HASHING_BUSY = "Too many login requests. Please try again later";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeout;
+    private final Timer latency;
+    private final Counter rejected;
+
+    public PasswordHashingServiceImpl(PasswordEncoder passwordEncoder,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${password.hashing.threads:0}") int threads,
+                                      @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                                      @Value("${password.hashing.timeout:10}") long timeout) {
+        var poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.passwordEncoder = passwordEncoder;
+        this.timeout = timeout;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.latency = Timer.builder("password.hashing.latency").register(meterRegistry);
+        this.rejected = Counter.builder("password.hashing.rejected").register(meterRegistry);
+        Gauge.builder("password.hashing.queue.depth", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> latency.recordCallable(task));
+        } catch (RejectedExecutionException exception) {
+            rejected.increment();
+            throw new ServiceUnavailableException(HASHING_BUSY);
+        }
+        try {
+            return future.get(timeout, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            abandon(future);
+            throw new ServiceUnavailableException(HASHING_BUSY);
+        } catch (TimeoutException exception) {
+            abandon(future);
+            throw new ServiceUnavailableException(HASHING_BUSY);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ApiException(exception.getCause().getMessage());
+        }
+    }
+
+    // Ещё не начатая задача освобождает место в очереди; уже идущий хэш досчитывается, результат отбрасывается
+    private void abandon(Future<?> future) {
+        future.cancel(false);
+        executor.remove((Runnable) future);
+    }
+}
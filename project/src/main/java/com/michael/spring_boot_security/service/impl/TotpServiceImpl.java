@@ -0,0 +1,95 @@
+package com.michael.spring_boot_security.service.impl;
+
+import com.michael.spring_boot_security.cache.CacheStore;
+import com.michael.spring_boot_security.exception.payload.ApiException;
+import com.michael.spring_boot_security.service.TotpService;
+import lombok.RequiredArgsConstructor;
+import org.apache.commons.codec.binary.Base32;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+
+import static com.michael.spring_boot_security.constans.AppConstants.*;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+// Проверка TOTP (RFC 6238, HMAC-SHA1) без создания генератора и верификатора на каждый запрос
+@Service
+@RequiredArgsConstructor
+public class TotpServiceImpl implements TotpService {
+    private static final String HMAC_SHA1 = "HmacSHA1";
+    private static final int MODULUS = (int) Math.pow(10, TOTP_DIGITS);
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(TotpServiceImpl::newMac);
+
+    private final CacheStore<String, SecretKeySpec> totpKeyCache;
+    private final CacheStore<String, Long> usedTotpCodes;
+
+    @Override
+    public boolean verify(String userId, String secret, String code) {
+        var expected = parse(code);
+        if (expected < 0 || isBlank(secret)) {
+            return false;
+        }
+        var key = key(secret);
+        var current = Instant.now().getEpochSecond() / TOTP_PERIOD;
+        var matched = -1L;
+        // Все окна проверяются за один проход без раннего выхода — время ответа не зависит от совпавшего окна
+        for (var step = current - TOTP_ALLOWED_DISCREPANCY; step <= current + TOTP_ALLOWED_DISCREPANCY; step++) {
+            if (code(key, step) == expected) {
+                matched = step;
+            }
+        }
+        return matched >= 0 && usedTotpCodes.putIfAbsent(userId + ":" + matched, matched) == null;
+    }
+
+    // Ключ кэша — сам секрет: после смены секрета на любом узле старая запись просто не совпадёт и истечёт
+    private SecretKeySpec key(String secret) {
+        return totpKeyCache.computeIfAbsent(secret, encoded -> new SecretKeySpec(new Base32().decode(encoded), HMAC_SHA1));
+    }
+
+    private static int code(SecretKeySpec key, long step) {
+        var mac = MAC.get();
+        try {
+            mac.init(key);
+        } catch (GeneralSecurityException exception) {
+            throw new ApiException("Unable to verify QR code");
+        }
+        var counter = new byte[8];
+        for (var i = 7; i >= 0; i--) {
+            counter[i] = (byte) step;
+            step >>>= 8;
+        }
+        var hash = mac.doFinal(counter);
+        var offset = hash[hash.length - 1] & 0xf;
+        var binary = ((hash[offset] & 0x7f) << 24)
+                | ((hash[offset + 1] & 0xff) << 16)
+                | ((hash[offset + 2] & 0xff) << 8)
+                | (hash[offset + 3] & 0xff);
+        return binary % MODULUS;
+    }
+
+    private static int parse(String code) {
+        if (code == null || code.length() != TOTP_DIGITS) {
+            return -1;
+        }
+        var value = 0;
+        for (var i = 0; i < code.length(); i++) {
+            var digit = code.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static Mac newMac() {
+        try {
+            return Mac.getInstance(HMAC_SHA1);
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -2,11 +2,11 @@ package com.michael.spring_boot_security.service.impl;
 
 import com.michael.spring_boot_security.cache.CacheStore;
 import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.domain.UserCredential;
 import com.michael.spring_boot_security.entity.ConfirmationEntity;
 import com.michael.spring_boot_security.entity.CredentialEntity;
 import com.michael.spring_boot_security.entity.RoleEntity;
 import com.michael.spring_boot_security.entity.UserEntity;
-import com.michael.spring_boot_security.entity.base.RequestContext;
 import com.michael.spring_boot_security.enumerations.Authority;
 import com.michael.spring_boot_security.enumerations.EventType;
 import com.michael.spring_boot_security.enumerations.LoginType;
@@ -21,18 +21,18 @@ import com.michael.spring_boot_security.repository.ConfirmationRepository;
 import com.michael.spring_boot_security.repository.CredentialRepository;
 import com.michael.spring_boot_security.repository.RoleRepository;
 import com.michael.spring_boot_security.repository.UserRepository;
+import com.michael.spring_boot_security.security.LoginAttemptTracker;
+import com.michael.spring_boot_security.security.SecurityEpochStore;
+import com.michael.spring_boot_security.service.PasswordHashingService;
+import com.michael.spring_boot_security.service.TotpService;
 import com.michael.spring_boot_security.service.UserService;
-import dev.samstevens.totp.code.CodeGenerator;
-import dev.samstevens.totp.code.CodeVerifier;
-import dev.samstevens.totp.code.DefaultCodeGenerator;
-import dev.samstevens.totp.code.DefaultCodeVerifier;
-import dev.samstevens.totp.time.SystemTimeProvider;
-import dev.samstevens.totp.time.TimeProvider;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -42,10 +42,12 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import static com.michael.spring_boot_security.cache.CacheConfig.USERS_CACHE;
 import static com.michael.spring_boot_security.constans.AppConstants.EXISTING_PASSWORD_INCORRECT;
 import static com.michael.spring_boot_security.utility.UserUtils.*;
 import static com.michael.spring_boot_security.validations.UserValidation.verifyAccountStatus;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static org.apache.commons.lang3.StringUtils.isBlank;
 
 @Service
 @Transactional(rollbackOn = Exception.class)
@@ -55,6 +57,8 @@ public class UserServiceImpl implements UserService {
     public static final String NO_ROLE_FOUND_BY_NAME = "No role found by name: %s";
     public static final String CONFIRMATION_KEY_NOT_FOUND = "Confirmation key not found";
     public static final String NO_USER_FOUND_BY_EMAIL = "No user found by email: %s ";
+    public static final int MAX_LOGIN_ATTEMPTS = 5;
+    public static final String MFA_NOT_SET_UP = "MFA is not set up for this account";
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
@@ -62,7 +66,14 @@ public class UserServiceImpl implements UserService {
     private final ConfirmationRepository confirmationRepository;
     private final ApplicationEventPublisher publisher;
     private final CacheStore<String, Integer> userCache;
-    private final PasswordEncoder passwordEncoder;
+    private final CacheStore<String, User> userSnapshotCache;
+    private final CacheStore<String, Boolean> unknownEmailCache;
+    private final CacheStore<String, byte[]> qrCodeImageCache;
+    private final SecurityEpochStore epochStore;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginAttemptTracker loginAttemptTracker;
+    private final TotpService totpService;
+    private final CacheManager cacheManager;
 
 
     @Override
@@ -71,7 +82,8 @@ public class UserServiceImpl implements UserService {
         var userEntity = createNewUser(request);
 
         userRepository.save(userEntity);
-        var credentialEntity = new CredentialEntity(passwordEncoder.encode(request.getPassword()), userEntity);//TODO: encode password
+        unknownEmailCache.evictAfterCommit(userEntity.getEmail());
+        var credentialEntity = new CredentialEntity(passwordHashingService.encode(request.getPassword()), userEntity);//TODO: encode password
         credentialRepository.save(credentialEntity);
         var confirmationEntity = new ConfirmationEntity(userEntity);
         confirmationRepository.save(confirmationEntity);
@@ -91,41 +103,61 @@ public class UserServiceImpl implements UserService {
         UserEntity userEntity = findUserEntityByEmail(confirmationEntity.getUserEntity().getEmail());
         userEntity.setEnabled(true);
         userRepository.save(userEntity);
+        evictUser(userEntity);
         confirmationRepository.delete(confirmationEntity);
     }
 
     @Override
     public void updateLoginAttempt(String email, LoginType loginType) {
-        var userEntity = findUserEntityByEmail(email);
-        RequestContext.setUserId(userEntity.getId());
         switch (loginType) {
             case LOGIN_ATTEMPT -> {
-                if (userCache.get(userEntity.getEmail()) == null) {
-                    userEntity.setLoginAttempts(0);
-                    userEntity.setAccountNonLocked(true);
+                // Несуществующий email не оставляет ни счётчика, ни записей в базе
+                if (unknownEmailCache.get(email) != null) {
+                    return;
                 }
-                userEntity.setLoginAttempts(userEntity.getLoginAttempts() + 1);
-                userCache.put(userEntity.getEmail(), userEntity.getLoginAttempts());
-                if (userCache.get(userEntity.getEmail()) > 5) {
-                    userEntity.setAccountNonLocked(false);
+                var attempts = userCache.incrementAndGet(email);
+                if (attempts == 1) {
+                    // Первая попытка в окне: наличие пользователя проверяется чтением до любой записи
+                    if (userRepository.findUserIdByEmail(email).isEmpty()) {
+                        unknownEmailCache.put(email, Boolean.TRUE);
+                        return;
+                    }
+                    if (userRepository.unlockAccount(email) > 0) {
+                        lockStateChanged(email);
+                    }
+                }
+                loginAttemptTracker.recordAttempt(email, attempts);
+                if (attempts == MAX_LOGIN_ATTEMPTS + 1 && userRepository.lockAccount(email) > 0) {
+                    lockStateChanged(email);
                 }
             }
             case LOGIN_SUCCESS -> {
-                userEntity.setAccountNonLocked(true);
-                userEntity.setLoginAttempts(0);
-                userEntity.setLastLogin(LocalDateTime.now());
-                userCache.evict(userEntity.getEmail());
+                userCache.evict(email);
+                loginAttemptTracker.recordSuccess(email);
             }
         }
-        userRepository.save(userEntity);
+    }
+
+    private void lockStateChanged(String email) {
+        userRepository.findUserIdByEmail(email).ifPresent(userId -> {
+            epochStore.bump(userId);
+            evictUser(userId);
+        });
     }
 
     @Override
+    @Cacheable(cacheNames = USERS_CACHE, sync = true)
     public User getUserByUserId(String userId) {
         var userEntity = findUserEntityById(userId);
         return fromUserEntity(userEntity, userEntity.getRole(), getUserCredentialById(userEntity.getId()));
     }
 
+    @Override
+    public User getUserSummary(String userId) {
+        return userSnapshotCache.computeIfAbsent(userId, id -> fromUserSummary(userRepository.findUserSummaryByUserId(id)
+                .orElseThrow(() -> new NotFoundException("User not found"))));
+    }
+
     @Override
     public User getUserByEmail(String email) {
         UserEntity user = findUserEntityByEmail(email);
@@ -142,15 +174,34 @@ public class UserServiceImpl implements UserService {
     }
 
 
+    @Override
+    public UserCredential getUserCredentialByEmail(String email) {
+        if (unknownEmailCache.get(email) != null) {
+            throw new NotFoundException(String.format(NO_USER_FOUND_BY_EMAIL, email));
+        }
+        return credentialRepository.findUserCredentialByEmail(email)
+                .orElseThrow(() -> {
+                    unknownEmailCache.put(email, Boolean.TRUE);
+                    return new NotFoundException(String.format(NO_USER_FOUND_BY_EMAIL, email));
+                });
+    }
+
+    @Override
+    public void rehashPassword(Long userId, String rawPassword) {
+        credentialRepository.updatePasswordHash(userId, passwordHashingService.encode(rawPassword));
+    }
+
+
     //https://github.com/samdjstevens/java-totp?ysclid=m28rwbumql236354684
     @Override
     public User setUpMfa(Long id) {
         var userEntity = findUserEntityById(id);
         var codeSecret = qrCodeSecret.get();
-        userEntity.setQrCodeImageUri(qrCodeImageUri.apply(userEntity.getEmail(), codeSecret));
         userEntity.setQrCodeSecret(codeSecret);
         userEntity.setMfa(true);
         userRepository.save(userEntity);
+        evictUser(userEntity);
+        qrCodeImageCache.evictAfterCommit(userEntity.getUserId());
         return fromUserEntity(userEntity, userEntity.getRole(), getUserCredentialById(userEntity.getId()));
     }
 
@@ -159,15 +210,27 @@ public class UserServiceImpl implements UserService {
         var userEntity = findUserEntityById(id);
         userEntity.setMfa(false);
         userEntity.setQrCodeSecret(EMPTY);
-        userEntity.setQrCodeImageUri(EMPTY);
         userRepository.save(userEntity);
+        evictUser(userEntity);
+        qrCodeImageCache.evictAfterCommit(userEntity.getUserId());
         return fromUserEntity(userEntity, userEntity.getRole(), getUserCredentialById(userEntity.getId()));
     }
 
+    @Override
+    public byte[] getQrCodeImage(String userId) {
+        return qrCodeImageCache.computeIfAbsent(userId, id -> {
+            var userEntity = findUserEntityById(id);
+            if (!userEntity.isMfa() || isBlank(userEntity.getQrCodeSecret())) {
+                throw new ApiException(MFA_NOT_SET_UP);
+            }
+            return qrCodeImage.apply(userEntity.getEmail(), userEntity.getQrCodeSecret());
+        });
+    }
+
     @Override
     public User verifyQrCode(String userId, String qrCode) {
         var userEntity = findUserEntityById(userId);
-        verifyCode(qrCode, userEntity.getQrCodeSecret());
+        verifyCode(userId, qrCode, userEntity.getQrCodeSecret());
         return fromUserEntity(userEntity, userEntity.getRole(), getUserCredentialById(userEntity.getId()));
     }
 
@@ -205,10 +268,12 @@ public class UserServiceImpl implements UserService {
         if (!resetPasswordRequest.getNewPassword().equals(resetPasswordRequest.getConfirmationPassword())) {
             throw new ApiException("Password don't match. Please try again");
         }
-        var user = getUserByUserId(resetPasswordRequest.getUserId());
+        var user = getUserSummary(resetPasswordRequest.getUserId());
         var credentials = getUserCredentialById(user.getId());
-        credentials.setPassword(passwordEncoder.encode(resetPasswordRequest.getNewPassword()));
+        credentials.setPassword(passwordHashingService.encode(resetPasswordRequest.getNewPassword()));
         credentialRepository.save(credentials);
+        evictUser(user.getUserId());
+        epochStore.bump(user.getUserId());
     }
 
     @Override
@@ -219,15 +284,18 @@ public class UserServiceImpl implements UserService {
         var userEntity = findUserEntityById(userId);
         var credentialsEntity = getUserCredentialById(userEntity.getId());
         verifyAccountStatus(userEntity);
-        if (!passwordEncoder.matches(updatePasswordRequest.getCurrentPassword(), credentialsEntity.getPassword())) {
+        if (!passwordHashingService.matches(updatePasswordRequest.getCurrentPassword(), credentialsEntity.getPassword())) {
             throw new ApiException(EXISTING_PASSWORD_INCORRECT);
         }
-        credentialsEntity.setPassword(passwordEncoder.encode(updatePasswordRequest.getNewPassword()));
+        credentialsEntity.setPassword(passwordHashingService.encode(updatePasswordRequest.getNewPassword()));
         credentialRepository.save(credentialsEntity);
+        evictUser(userEntity);
+        epochStore.bump(userId);
     }
 
 
     @Override
+    @CachePut(cacheNames = USERS_CACHE, key = "#userId")
     public User updateUser(String userId, RegistrationRequest registrationRequest) {
         //TODO: check email;
         var userEntity = findUserEntityById(userId);
@@ -237,6 +305,8 @@ public class UserServiceImpl implements UserService {
         userEntity.setBio(registrationRequest.getBio());
         userEntity.setPhone(registrationRequest.getPhone());
         userRepository.save(userEntity);
+        evictUser(userEntity);
+        unknownEmailCache.evictAfterCommit(userEntity.getEmail());
         return fromUserEntity(userEntity, userEntity.getRole(), getUserCredentialById(userEntity.getId()));
     }
 
@@ -245,6 +315,8 @@ public class UserServiceImpl implements UserService {
         var userEntity = findUserEntityById(userId);
         userEntity.setRole(getRoleName(roleRequest.getRole()));
         userRepository.save(userEntity);
+        evictUser(userEntity);
+        epochStore.bump(userId);
     }
 
     //
@@ -254,6 +326,8 @@ public class UserServiceImpl implements UserService {
         var userEntity = findUserEntityById(userId);
         userEntity.setAccountNonExpired(!userEntity.isAccountNonExpired());
         userRepository.save(userEntity);
+        evictUser(userEntity);
+        epochStore.bump(userId);
     }
 
     @Override
@@ -261,6 +335,8 @@ public class UserServiceImpl implements UserService {
         var userEntity = findUserEntityById(userId);
         userEntity.setAccountNonLocked(!userEntity.isAccountNonLocked());
         userRepository.save(userEntity);
+        evictUser(userEntity);
+        epochStore.bump(userId);
     }
 
     @Override
@@ -268,6 +344,8 @@ public class UserServiceImpl implements UserService {
         var userEntity = findUserEntityById(userId);
         userEntity.setEnabled(!userEntity.isEnabled());
         userRepository.save(userEntity);
+        evictUser(userEntity);
+        epochStore.bump(userId);
     }
 
     //TODO:????
@@ -282,19 +360,36 @@ public class UserServiceImpl implements UserService {
             credentials.setUpdatedAt(LocalDateTime.of(1995, 7, 12, 11, 11));
         }*/
         credentialRepository.save(credentials);
+        evictUser(userEntity);
+        epochStore.bump(userId);
     }
 
-    private boolean verifyCode(String qrCode, String qrCodeSecret) {
-        TimeProvider timeProvider = new SystemTimeProvider();
-        CodeGenerator codeGenerator = new DefaultCodeGenerator();
-        CodeVerifier codeVerifier = new DefaultCodeVerifier(codeGenerator, timeProvider);
-        if (codeVerifier.isValidCode(qrCodeSecret, qrCode)) {
+    private boolean verifyCode(String userId, String qrCode, String qrCodeSecret) {
+        if (totpService.verify(userId, qrCodeSecret, qrCode)) {
             return true;
         } else {
             throw new ApiException("Invalid QR code. Please try again");
         }
     }
 
+    // Сброс всех кэшированных представлений пользователя: проекции для проверки токенов и полного профиля.
+    // Оба удаления выполняются после коммита — users через TransactionAwareCacheManagerProxy
+    private void evictUser(UserEntity userEntity) {
+        evictUser(userEntity.getUserId());
+    }
+
+    private void evictUser(String userId) {
+        userSnapshotCache.evictAfterCommit(userId);
+        evict(USERS_CACHE, userId);
+    }
+
+    private void evict(String cacheName, Object key) {
+        var cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
     private UserEntity findUserEntityById(String userId) {
         return userRepository.findUserEntityByUserId(userId)
                 .orElseThrow(() -> new NotFoundException("User not found"));
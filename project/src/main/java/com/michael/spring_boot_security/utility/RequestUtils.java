@@ -1,7 +1,9 @@
 package com.michael.spring_boot_security.utility;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.michael.spring_boot_security.exception.payload.ApiException;
+import com.michael.spring_boot_security.exception.payload.ServiceUnavailableException;
+import com.michael.spring_boot_security.exception.payload.TooManyRequestsException;
 import com.michael.spring_boot_security.payload.response.Response;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -14,7 +16,6 @@ import org.springframework.security.web.access.AccessDeniedHandler;
 
 import java.time.LocalDateTime;
 import java.util.Map;
-import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 
 import static java.time.LocalTime.now;
@@ -22,6 +23,9 @@ import static java.util.Collections.emptyMap;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.exception.ExceptionUtils.getRootCauseMessage;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
@@ -44,10 +48,18 @@ public class RequestUtils {
 
     public static void handleErrorResponse(HttpServletRequest request,
                                            HttpServletResponse response,
-                                           Exception exception) {
+                                           Exception exception,
+                                           ObjectWriter writer) {
         if (exception instanceof AccessDeniedHandler) {
             Response apiResponse = getErrorResponse(request, response, exception, FORBIDDEN);
-            writeResponse.accept(response, apiResponse);
+            writeResponse(response, apiResponse, writer);
+        } else if (exception instanceof ServiceUnavailableException) {
+            Response apiResponse = getErrorResponse(request, response, exception, SERVICE_UNAVAILABLE);
+            writeResponse(response, apiResponse, writer);
+        } else if (exception instanceof TooManyRequestsException tooManyRequests) {
+            response.setHeader(RETRY_AFTER, String.valueOf(tooManyRequests.getRetryAfterSeconds()));
+            Response apiResponse = getErrorResponse(request, response, exception, TOO_MANY_REQUESTS);
+            writeResponse(response, apiResponse, writer);
         }
     }
 
@@ -65,20 +77,20 @@ public class RequestUtils {
                 getRootCauseMessage(exception), emptyMap());
     }
 
-    private static final BiConsumer<HttpServletResponse, Response> writeResponse = ((httpServletResponse, response) -> {
+    public static void writeResponse(HttpServletResponse httpServletResponse, Response response, ObjectWriter writer) {
         try {
             var outputStream = httpServletResponse.getOutputStream();
-            new ObjectMapper().writeValue(outputStream, response);
+            writer.writeValue(outputStream, response);
             outputStream.flush();
         } catch (Exception exception) {
             throw new ApiException(exception.getMessage());
         }
-    });
+    }
 
     private static final BiFunction<Exception, HttpStatus, String> errorReason = (exception, httpStatus) -> {
         if(httpStatus.isSameCodeAs(FORBIDDEN)) { return "You do not have enough permission"; }
         if(httpStatus.isSameCodeAs(UNAUTHORIZED)) { return "You are not logged in"; }
-        if(exception instanceof DisabledException || exception instanceof LockedException || exception instanceof BadCredentialsException || exception instanceof CredentialsExpiredException || exception instanceof ApiException) {
+        if(exception instanceof DisabledException || exception instanceof LockedException || exception instanceof BadCredentialsException || exception instanceof CredentialsExpiredException || exception instanceof ApiException || exception instanceof ServiceUnavailableException || exception instanceof TooManyRequestsException) {
             return exception.getMessage();
         }
         if (httpStatus.is5xxServerError()) {
@@ -1,6 +1,8 @@
 package com.michael.spring_boot_security.utility;
 
 import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.domain.UserCredential;
+import com.michael.spring_boot_security.domain.UserSummary;
 import com.michael.spring_boot_security.entity.CredentialEntity;
 import com.michael.spring_boot_security.entity.RoleEntity;
 import com.michael.spring_boot_security.entity.UserEntity;
@@ -17,7 +19,8 @@ import java.util.function.Supplier;
 
 import static com.michael.spring_boot_security.constans.AppConstants.MICHAEL_APP;
 import static com.michael.spring_boot_security.constans.AppConstants.NINETY_DAYS;
-import static dev.samstevens.totp.util.Utils.getDataUriForImage;
+import static com.michael.spring_boot_security.constans.AppConstants.TOTP_DIGITS;
+import static com.michael.spring_boot_security.constans.AppConstants.TOTP_PERIOD;
 
 public class UserUtils {
 
@@ -36,8 +39,47 @@ public class UserUtils {
     }
 
 
+    public static User fromUserCredential(UserCredential credential) {
+        return User.builder()
+                .id(credential.id())
+                .userId(credential.userId())
+                .firstName(credential.firstName())
+                .lastName(credential.lastName())
+                .email(credential.email())
+                .role(credential.role())
+                .authorities(credential.authority().getValue())
+                .accountNonExpired(credential.accountNonExpired())
+                .accountNonLocked(credential.accountNonLocked())
+                .credentialsNonExpired(isCredentialNonExpired(credential.passwordUpdatedAt()))
+                .enabled(credential.enabled())
+                .mfa(credential.mfa())
+                .build();
+    }
+
+    public static User fromUserSummary(UserSummary summary) {
+        return User.builder()
+                .id(summary.id())
+                .userId(summary.userId())
+                .firstName(summary.firstName())
+                .lastName(summary.lastName())
+                .email(summary.email())
+                .role(summary.role())
+                .authorities(summary.authority().getValue())
+                .accountNonExpired(summary.accountNonExpired())
+                .accountNonLocked(summary.accountNonLocked())
+                .credentialsNonExpired(isCredentialNonExpired(summary.passwordUpdatedAt()))
+                .enabled(summary.enabled())
+                .mfa(summary.mfa())
+                .build();
+    }
+
+
     private static boolean isCredentialNonExpired(CredentialEntity credentialEntity) {
-        return credentialEntity.getUpdatedAt().plusDays(NINETY_DAYS).isAfter(LocalDateTime.now());
+        return isCredentialNonExpired(credentialEntity.getUpdatedAt());
+    }
+
+    private static boolean isCredentialNonExpired(LocalDateTime passwordUpdatedAt) {
+        return passwordUpdatedAt.plusDays(NINETY_DAYS).isAfter(LocalDateTime.now());
     }
     public static BiFunction<String, String, QrData> qrDataFunction = (email, qrCodeSecret) ->
             new QrData.Builder()
@@ -45,21 +87,17 @@ public class UserUtils {
                     .label(email)
                     .secret(qrCodeSecret)
                     .algorithm(HashingAlgorithm.SHA1)
-                    .digits(6)
-                    .period(30)
+                    .digits(TOTP_DIGITS)
+                    .period(TOTP_PERIOD)
                     .build();
 
-    public static BiFunction<String, String, String> qrCodeImageUri = (email, qrCodeSecret) -> {
+    public static BiFunction<String, String, byte[]> qrCodeImage = (email, qrCodeSecret) -> {
         var data = qrDataFunction.apply(email, qrCodeSecret);
-        var generator = new ZxingPngQrGenerator();
-        byte[] imageData;
         try {
-            imageData = generator.generate(data);
+            return new ZxingPngQrGenerator().generate(data);
         } catch (Exception exception) {
-         //   throw new ApiException(exception.getMessage());
-            throw new ApiException("Unable to create QR code URI");
+            throw new ApiException("Unable to create QR code image");
         }
-        return getDataUriForImage(imageData, generator.getImageMimeType());
     };
 
     public static Supplier<String> qrCodeSecret = () -> new DefaultSecretGenerator().generate();
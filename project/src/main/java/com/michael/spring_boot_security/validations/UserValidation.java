@@ -1,17 +1,26 @@
 package com.michael.spring_boot_security.validations;
 
+import com.michael.spring_boot_security.domain.User;
 import com.michael.spring_boot_security.entity.UserEntity;
 import com.michael.spring_boot_security.exception.payload.ApiException;
 
 public class UserValidation {
     public static void verifyAccountStatus(UserEntity userEntity) {
-        if (!userEntity.isEnabled()) {
+        verifyAccountStatus(userEntity.isEnabled(), userEntity.isAccountNonExpired(), userEntity.isAccountNonLocked());
+    }
+
+    public static void verifyAccountStatus(User user) {
+        verifyAccountStatus(user.isEnabled(), user.isAccountNonExpired(), user.isAccountNonLocked());
+    }
+
+    private static void verifyAccountStatus(boolean enabled, boolean accountNonExpired, boolean accountNonLocked) {
+        if (!enabled) {
             throw new ApiException("Account is disabled");
         }
-        if (!userEntity.isAccountNonExpired()) {
+        if (!accountNonExpired) {
             throw new ApiException("Account is expired");
         }
-        if (!userEntity.isAccountNonLocked()) {
+        if (!accountNonLocked) {
             throw new ApiException("Account is locked");
         }
     }
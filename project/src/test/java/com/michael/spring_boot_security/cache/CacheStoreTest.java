@@ -0,0 +1,151 @@
+package com.michael.spring_boot_security.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CacheStoreTest {
+    private static final int OPERATIONS = 1000;
+
+    @Test
+    void refreshAfterWriteRequiresLoader() {
+        assertThatThrownBy(() -> new CacheStore<String, String>("maximumSize=10,refreshAfterWrite=1m"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CacheStore<String, String>("maximumWeight=10,refreshAfterWrite=1m",
+                builder -> builder.weigher((String key, String value) -> value.length())))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        var cache = new CacheStore<String, String>("maximumSize=10,refreshAfterWrite=1m", key -> key.toUpperCase());
+
+        assertThat(cache.computeIfAbsent("key", key -> "value")).isEqualTo("value");
+    }
+
+    @Test
+    void specWithoutBoundIsLimitedToDefaultMaximumSize() {
+        var cache = new CacheStore<Integer, Integer>("expireAfterWrite=1m");
+
+        for (var i = 0; i <= CacheStore.DEFAULT_MAXIMUM_SIZE; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+
+        assertThat(cache.stats().evictionCount()).isPositive();
+    }
+
+    @Test
+    void evictAfterCommitWaitsForCommit() {
+        var cache = new CacheStore<String, String>("maximumSize=10");
+        cache.put("key", "value");
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.evictAfterCommit("key");
+            assertThat(cache.get("key")).isEqualTo("value");
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(cache.get("key")).isNull();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void evictAfterCommitOutsideTransactionEvictsImmediately() {
+        var cache = new CacheStore<String, String>("maximumSize=10");
+        cache.put("key", "value");
+
+        cache.evictAfterCommit("key");
+
+        assertThat(cache.get("key")).isNull();
+    }
+
+    @Test
+    void concurrentIncrementsHandOutEveryValueOnce() throws Exception {
+        var cache = new CacheStore<String, Integer>("maximumSize=10");
+        var tasks = new ArrayList<Callable<Integer>>();
+        for (var i = 0; i < OPERATIONS; i++) {
+            tasks.add(() -> cache.incrementAndGet("user@example.com"));
+        }
+
+        var results = new HashSet<>(runConcurrently(tasks));
+
+        assertThat(results).hasSize(OPERATIONS).contains(1, OPERATIONS);
+        assertThat(cache.get("user@example.com")).isEqualTo(OPERATIONS);
+    }
+
+    @Test
+    void concurrentMergeAndComputeLoseNoUpdates() throws Exception {
+        var cache = new CacheStore<String, Integer>("maximumSize=10");
+        var tasks = new ArrayList<Callable<Integer>>();
+        for (var i = 0; i < OPERATIONS; i++) {
+            tasks.add(i % 2 == 0
+                    ? () -> cache.merge("key", 1, Integer::sum)
+                    : () -> cache.compute("key", (key, current) -> current == null ? 1 : current + 1));
+        }
+
+        runConcurrently(tasks);
+
+        assertThat(cache.get("key")).isEqualTo(OPERATIONS);
+    }
+
+    @Test
+    void concurrentPutIfAbsentHasOneWinner() throws Exception {
+        var cache = new CacheStore<String, Integer>("maximumSize=10");
+        var tasks = new ArrayList<Callable<Integer>>();
+        for (var i = 0; i < OPERATIONS; i++) {
+            var value = i;
+            tasks.add(() -> cache.putIfAbsent("key", value));
+        }
+
+        var winners = runConcurrently(tasks).stream().filter(existing -> existing == null).count();
+
+        assertThat(winners).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentComputeIfAbsentLoadsOnce() throws Exception {
+        var cache = new CacheStore<String, Integer>("maximumSize=10");
+        var loads = new AtomicInteger();
+        var tasks = new ArrayList<Callable<Integer>>();
+        for (var i = 0; i < OPERATIONS; i++) {
+            tasks.add(() -> cache.computeIfAbsent("key", key -> loads.incrementAndGet()));
+        }
+
+        var results = new HashSet<>(runConcurrently(tasks));
+
+        assertThat(loads).hasValue(1);
+        assertThat(results).containsExactly(1);
+    }
+
+    @Test
+    void computeReturningNullRemovesEntry() {
+        var cache = new CacheStore<String, Integer>("maximumSize=10");
+        cache.put("key", 1);
+
+        assertThat(cache.compute("key", (key, current) -> null)).isNull();
+        assertThat(cache.get("key")).isNull();
+    }
+
+    private static <T> List<T> runConcurrently(List<Callable<T>> tasks) throws Exception {
+        var results = new ArrayList<T>();
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            for (var future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+}
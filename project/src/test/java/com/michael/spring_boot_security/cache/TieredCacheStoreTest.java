@@ -0,0 +1,172 @@
+package com.michael.spring_boot_security.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredCacheStoreTest {
+    private static final String SPEC = "maximumSize=1000,expireAfterWrite=60s";
+    private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+    private static final int OPERATIONS = 1000;
+
+    private final LocalSharedCacheTier sharedTier = new LocalSharedCacheTier();
+    private final CacheInvalidationBus invalidationBus = new LocalCacheInvalidationBus();
+
+    @Test
+    void writeOnOneNodeInvalidatesLocalCopyOnAnother() {
+        var nodeA = node("values");
+        var nodeB = node("values");
+
+        nodeA.put("key", "first");
+        assertThat(nodeB.get("key")).isEqualTo("first");
+
+        nodeA.put("key", "second");
+        assertThat(nodeB.get("key")).isEqualTo("second");
+
+        nodeA.evict("key");
+        assertThat(nodeB.get("key")).isNull();
+    }
+
+    @Test
+    void evictAllClearsEveryNode() {
+        var nodeA = node("values");
+        var nodeB = node("values");
+        nodeA.put("key", "value");
+        assertThat(nodeB.get("key")).isEqualTo("value");
+
+        nodeA.evictAll();
+
+        assertThat(nodeA.get("key")).isNull();
+        assertThat(nodeB.get("key")).isNull();
+    }
+
+    @Test
+    void countersAreSharedAcrossNodes() throws Exception {
+        var nodeA = new TieredCacheStore<String, Integer>("attempts", SPEC, TIME_TO_LIVE, sharedTier, invalidationBus);
+        var nodeB = new TieredCacheStore<String, Integer>("attempts", SPEC, TIME_TO_LIVE, sharedTier, invalidationBus);
+        var tasks = new ArrayList<Callable<Integer>>();
+        for (var i = 0; i < OPERATIONS; i++) {
+            var node = i % 2 == 0 ? nodeA : nodeB;
+            tasks.add(() -> node.incrementAndGet("user@example.com"));
+        }
+
+        var results = new HashSet<Integer>();
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            for (var future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Каждое значение выдано ровно один раз: ни одно увеличение не потеряно
+        assertThat(results).hasSize(OPERATIONS).contains(1, OPERATIONS);
+    }
+
+    @Test
+    void concurrentComputeOnTwoNodesLosesNoUpdates() throws Exception {
+        var nodeA = new TieredCacheStore<String, Integer>("counter", SPEC, TIME_TO_LIVE, sharedTier, invalidationBus);
+        var nodeB = new TieredCacheStore<String, Integer>("counter", SPEC, TIME_TO_LIVE, sharedTier, invalidationBus);
+        var tasks = new ArrayList<Callable<Integer>>();
+        for (var i = 0; i < OPERATIONS; i++) {
+            var node = i % 2 == 0 ? nodeA : nodeB;
+            tasks.add(() -> node.merge("key", 1, Integer::sum));
+        }
+
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(sharedTier.<Integer>get("counter", "key")).isEqualTo(OPERATIONS);
+    }
+
+    @Test
+    void computeRetriesWhenSharedValueChangesConcurrently() {
+        var conflicts = new AtomicInteger(1);
+        // Перед первой условной заменой "другой узел" успевает записать своё значение
+        var racingTier = new LocalSharedCacheTier() {
+            @Override
+            public boolean replace(String cache, Object key, Object expected, Object value, Duration timeToLive) {
+                if (conflicts.getAndDecrement() > 0) {
+                    put(cache, key, 10, timeToLive);
+                }
+                return super.replace(cache, key, expected, value, timeToLive);
+            }
+        };
+        var store = new TieredCacheStore<String, Integer>("compute", SPEC, TIME_TO_LIVE, racingTier, invalidationBus);
+        store.put("key", 1);
+        var calls = new AtomicInteger();
+
+        var result = store.compute("key", (key, current) -> {
+            calls.incrementAndGet();
+            return current + 1;
+        });
+
+        assertThat(result).isEqualTo(11);
+        assertThat(calls).hasValue(2);
+        assertThat(store.get("key")).isEqualTo(11);
+        assertThat(racingTier.<Integer>get("compute", "key")).isEqualTo(11);
+    }
+
+    @Test
+    void invalidationDuringPopulateDoesNotLeaveStaleLocalCopy() {
+        var writer = new AtomicReference<TieredCacheStore<String, String>>();
+        // Пока узел A читает общий уровень, узел B записывает новое значение и рассылает инвалидацию
+        var racingTier = new LocalSharedCacheTier() {
+            private boolean raced;
+
+            @Override
+            public <V> V get(String cache, Object key) {
+                V value = super.get(cache, key);
+                if (!raced && writer.get() != null) {
+                    raced = true;
+                    writer.get().put((String) key, "second");
+                }
+                return value;
+            }
+        };
+        var nodeA = new TieredCacheStore<String, String>("values", SPEC, TIME_TO_LIVE, racingTier, invalidationBus);
+        var nodeB = new TieredCacheStore<String, String>("values", SPEC, TIME_TO_LIVE, racingTier, invalidationBus);
+        nodeB.put("key", "first");
+        writer.set(nodeB);
+
+        assertThat(nodeA.get("key")).isEqualTo("first");
+        assertThat(nodeA.get("key")).isEqualTo("second");
+    }
+
+    @Test
+    void localSharedTierUsesRegisteredSize() {
+        var store = new TieredCacheStore<Integer, Integer>("bounded", "maximumSize=10,expireAfterWrite=60s", TIME_TO_LIVE, sharedTier, invalidationBus);
+
+        for (var i = 0; i < OPERATIONS; i++) {
+            store.put(i, i);
+        }
+        sharedTier.cleanUp("bounded");
+
+        var retained = 0;
+        for (var i = 0; i < OPERATIONS; i++) {
+            if (sharedTier.get("bounded", i) != null) {
+                retained++;
+            }
+        }
+        assertThat(retained).isLessThanOrEqualTo(10);
+    }
+
+    private TieredCacheStore<String, String> node(String cacheName) {
+        return new TieredCacheStore<>(cacheName, SPEC, TIME_TO_LIVE, sharedTier, invalidationBus);
+    }
+}
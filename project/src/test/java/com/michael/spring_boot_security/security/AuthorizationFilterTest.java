@@ -0,0 +1,107 @@
+package com.michael.spring_boot_security.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.michael.spring_boot_security.cache.CacheStore;
+import com.michael.spring_boot_security.config.JsonCodec;
+import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.domain.UserSummary;
+import com.michael.spring_boot_security.entity.base.RequestContext;
+import com.michael.spring_boot_security.enumerations.Authority;
+import com.michael.spring_boot_security.repository.UserRepository;
+import com.michael.spring_boot_security.service.impl.JwtServiceImpl;
+import com.michael.spring_boot_security.service.impl.UserServiceImpl;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static com.michael.spring_boot_security.enumerations.TokenType.ACCESS;
+import static com.michael.spring_boot_security.utility.UserUtils.fromUserSummary;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.COOKIE;
+
+// Сколько раз за запрос разбирается JWT и сколько запросов уходит в репозиторий
+class AuthorizationFilterTest {
+    private static final String SECRET = "secretsecretsecretsecretsecretsecretsecretsecretsecretsecretsecretsecretssecretwslsdfjnskdlnmea";
+    private static final String USER_ID = "user-1";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserSummary summary = new UserSummary(1L, USER_ID, "First", "Last", "user@example.com", "USER",
+            Authority.USER, true, true, true, false, LocalDateTime.now());
+    private JwtKeyRing keyRing;
+    private JwtServiceImpl jwtService;
+    private AuthorizationFilter authorizationFilter;
+    private String accessToken;
+
+    @BeforeEach
+    void setUp() {
+        var ring = new JwtKeyRing();
+        ring.setSecret(SECRET);
+        ring.rotate("test", SECRET);
+        keyRing = spy(ring);
+        when(userRepository.findUserSummaryByUserId(USER_ID)).thenReturn(Optional.of(summary));
+        when(userRepository.findSecurityEpochByUserId(anyString())).thenReturn(Optional.empty());
+        var epochStore = new SecurityEpochStore(new CacheStore<>("maximumSize=100"), userRepository);
+        // Для проверки токена UserServiceImpl нужны только репозиторий и кэш снимков пользователя
+        var userService = new UserServiceImpl(userRepository, null, null, null, null, null,
+                new CacheStore<>("maximumSize=100,expireAfterWrite=300s"), null, null, epochStore, null, null, null, null);
+        jwtService = new JwtServiceImpl(userService, keyRing, new CacheStore<>("maximumSize=100"), epochStore,
+                new CacheStore<>("maximumSize=100"), new TokenExtractor());
+        jwtService.setExpiration(3600L);
+        authorizationFilter = new AuthorizationFilter(jwtService, new JsonCodec(new ObjectMapper()));
+        accessToken = jwtService.createToken(fromUserSummary(summary), ACCESS);
+        clearInvocations(keyRing, userRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContext.start();
+    }
+
+    @Test
+    void tokenIsParsedAndUserLoadedOncePerRequest() throws Exception {
+        var principal = new User[1];
+
+        authorizationFilter.doFilter(request(), new MockHttpServletResponse(), (request, response) -> {
+            // Дальнейшие потребители запроса получают тот же TokenData из атрибута запроса
+            jwtService.getTokenData((HttpServletRequest) request, ACCESS);
+            jwtService.getTokenData((HttpServletRequest) request, ACCESS);
+            principal[0] = (User) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        });
+
+        assertThat(principal[0].getUserId()).isEqualTo(USER_ID);
+        verify(keyRing, times(1)).getParser();
+        verify(userRepository, times(1)).findUserSummaryByUserId(USER_ID);
+    }
+
+    @Test
+    void repeatedRequestsReuseVerifiedTokenAndUserSnapshot() throws Exception {
+        for (var i = 0; i < 3; i++) {
+            authorizationFilter.doFilter(request(), new MockHttpServletResponse(), (request, response) -> {
+            });
+        }
+
+        verify(keyRing, times(1)).getParser();
+        verify(userRepository, times(1)).findUserSummaryByUserId(USER_ID);
+    }
+
+    private MockHttpServletRequest request() {
+        var request = new MockHttpServletRequest("GET", "/user/profile");
+        request.addHeader(COOKIE, ACCESS.getValue() + "=" + accessToken);
+        return request;
+    }
+}
@@ -0,0 +1,26 @@
+package com.michael.spring_boot_security.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CalibratedPasswordEncoderTest {
+    private static final String PASSWORD = "password";
+
+    @Test
+    void hashesFromNodesCalibratedDifferentlyAreNotRehashed() {
+        var slowNode = new CalibratedPasswordEncoder(6, 4);
+        var fastNode = new CalibratedPasswordEncoder(5, 4);
+
+        assertThat(fastNode.upgradeEncoding(slowNode.encode(PASSWORD))).isFalse();
+        assertThat(slowNode.upgradeEncoding(fastNode.encode(PASSWORD))).isFalse();
+    }
+
+    @Test
+    void hashBelowMinimumStrengthIsRehashed() {
+        var encoder = new CalibratedPasswordEncoder(6, 5);
+
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode(PASSWORD))).isTrue();
+    }
+}
@@ -0,0 +1,40 @@
+package com.michael.spring_boot_security.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTest {
+    private static final String SECRET = "secretsecretsecretsecretsecretsecretsecretsecretsecretsecretsecretsecretssecretwslsdfjnskdlnmea";
+    private static final String RETIRED_SECRET = "retiredsecretretiredsecretretiredsecretretiredsecretretiredsecretretiredsecretretiredsecretretired";
+
+    @Test
+    void retiredSecretsStayTrusted() {
+        var keyRing = keyRing("old:" + RETIRED_SECRET);
+
+        keyRing.init();
+
+        assertThat(keyRing.isTrusted("old")).isTrue();
+        assertThat(keyRing.isTrusted("current")).isTrue();
+    }
+
+    @Test
+    void entryWithoutKeyIdFailsWithNamedEntry() {
+        var keyRing = keyRing("old:" + RETIRED_SECRET + "," + RETIRED_SECRET);
+
+        assertThatThrownBy(keyRing::init)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("entry #2")
+                .hasMessageNotContaining(RETIRED_SECRET);
+    }
+
+    private static JwtKeyRing keyRing(String retiredSecrets) {
+        var keyRing = new JwtKeyRing();
+        keyRing.setSecret(SECRET);
+        ReflectionTestUtils.setField(keyRing, "keyId", "current");
+        ReflectionTestUtils.setField(keyRing, "retiredSecrets", retiredSecrets);
+        return keyRing;
+    }
+}
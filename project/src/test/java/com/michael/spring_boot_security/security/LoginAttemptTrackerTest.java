@@ -0,0 +1,102 @@
+package com.michael.spring_boot_security.security;
+
+import com.michael.spring_boot_security.cache.CacheStore;
+import com.michael.spring_boot_security.cache.CacheStoreCacheManager;
+import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.michael.spring_boot_security.cache.CacheConfig.USERS_CACHE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class LoginAttemptTrackerTest {
+    private static final String EMAIL = "user@example.com";
+    private static final String USER_ID = "user-1";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final CacheStore<String, User> userSnapshotCache = new CacheStore<>("maximumSize=100");
+    private final CacheStore<Object, Object> usersCache = new CacheStore<>("maximumSize=100");
+    private final LoginAttemptTracker tracker = new LoginAttemptTracker(userRepository, new TransactionTemplate(transactionManager),
+            userSnapshotCache, new CacheStoreCacheManager(Map.of(USERS_CACHE, usersCache)));
+
+    @Test
+    void attemptsBetweenFlushesAreWrittenOnceWithLatestCount() {
+        tracker.recordAttempt(EMAIL, 1);
+        tracker.recordAttempt(EMAIL, 2);
+        tracker.recordAttempt(EMAIL, 3);
+
+        tracker.flush();
+
+        verify(userRepository, times(1)).updateLoginAttempts(EMAIL, 3);
+        verify(userRepository, never()).updateLastLogin(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void successAfterAttemptsResetsCounterAndWritesLastLogin() {
+        tracker.recordAttempt(EMAIL, 2);
+        tracker.recordSuccess(EMAIL);
+
+        tracker.flush();
+
+        verify(userRepository).updateLastLogin(eq(EMAIL), eq(0), any(LocalDateTime.class));
+        verify(userRepository, never()).updateLoginAttempts(anyString(), anyInt());
+    }
+
+    @Test
+    void failedAttemptAfterSuccessKeepsLastLogin() {
+        tracker.recordSuccess(EMAIL);
+        tracker.recordAttempt(EMAIL, 1);
+
+        tracker.flush();
+
+        verify(userRepository).updateLastLogin(eq(EMAIL), eq(1), any(LocalDateTime.class));
+    }
+
+    @Test
+    void flushedStateIsNotWrittenAgain() {
+        tracker.recordAttempt(EMAIL, 1);
+
+        tracker.flush();
+        tracker.flush();
+
+        verify(userRepository, times(1)).updateLoginAttempts(EMAIL, 1);
+    }
+
+    @Test
+    void emptyFlushDoesNotOpenTransaction() {
+        tracker.flush();
+
+        verifyNoInteractions(transactionManager, userRepository);
+    }
+
+    @Test
+    void writtenLastLoginEvictsCachedProfile() {
+        when(userRepository.findUserIdByEmail(EMAIL)).thenReturn(Optional.of(USER_ID));
+        userSnapshotCache.put(USER_ID, new User());
+        usersCache.put(USER_ID, new User());
+        tracker.recordSuccess(EMAIL);
+
+        tracker.flush();
+
+        assertThat(userSnapshotCache.get(USER_ID)).isNull();
+        assertThat(usersCache.get(USER_ID)).isNull();
+    }
+}
@@ -0,0 +1,59 @@
+package com.michael.spring_boot_security.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.michael.spring_boot_security.config.JsonCodec;
+import org.apache.catalina.filters.RemoteIpFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static com.michael.spring_boot_security.constans.AppConstants.USER_LOGIN;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpMethod.POST;
+import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+// Tomcat применяет server.tomcat.remoteip.* через RemoteIpValve; RemoteIpFilter — та же логика в виде фильтра
+class LoginRateLimitFilterTest {
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+    private static final String PROXY = "10.0.0.1";
+
+    private final LoginRateLimitFilter loginRateLimitFilter = new LoginRateLimitFilter(
+            new LoginRateLimiter(1, 1, 5, 5, 100), new JsonCodec(new ObjectMapper()));
+    private final RemoteIpFilter remoteIpFilter = new RemoteIpFilter();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        var properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        remoteIpFilter.setInternalProxies(properties.getProperty("server.tomcat.remoteip.internal-proxies"));
+        remoteIpFilter.setRemoteIpHeader(properties.getProperty("server.tomcat.remoteip.remote-ip-header"));
+    }
+
+    @Test
+    void clientsBehindOneProxyHaveSeparateLimits() throws Exception {
+        assertThat(login(PROXY, "203.0.113.1")).isEqualTo(OK.value());
+        assertThat(login(PROXY, "203.0.113.2")).isEqualTo(OK.value());
+        assertThat(login(PROXY, "203.0.113.1")).isEqualTo(TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void forwardedAddressFromUntrustedPeerIsIgnored() throws Exception {
+        assertThat(login("198.51.100.7", "203.0.113.1")).isEqualTo(OK.value());
+        assertThat(login("198.51.100.7", "203.0.113.2")).isEqualTo(TOO_MANY_REQUESTS.value());
+    }
+
+    private int login(String remoteAddr, String forwardedFor) throws Exception {
+        var request = new MockHttpServletRequest(POST.name(), USER_LOGIN);
+        request.setServletPath(USER_LOGIN);
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader(FORWARDED_FOR, forwardedFor);
+        var response = new MockHttpServletResponse();
+        remoteIpFilter.doFilter(request, response, (forwarded, forwardedResponse) ->
+                loginRateLimitFilter.doFilter(forwarded, forwardedResponse, new MockFilterChain()));
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,51 @@
+package com.michael.spring_boot_security.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static com.michael.spring_boot_security.enumerations.TokenType.ACCESS;
+import static com.michael.spring_boot_security.enumerations.TokenType.REFRESH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.COOKIE;
+
+class TokenExtractorTest {
+    private final TokenExtractor tokenExtractor = new TokenExtractor();
+
+    @Test
+    void readsBothTokensFromOneCookieHeader() {
+        var request = new MockHttpServletRequest();
+        request.addHeader(COOKIE, "theme=dark; " + ACCESS.getValue() + "=access; " + REFRESH.getValue() + "=\"refresh\"");
+
+        var tokens = tokenExtractor.extract(request);
+
+        assertThat(tokens.access()).isEqualTo("access");
+        assertThat(tokens.refresh()).isEqualTo("refresh");
+    }
+
+    @Test
+    void bearerHeaderOverridesAccessCookie() {
+        var request = new MockHttpServletRequest();
+        request.addHeader(COOKIE, ACCESS.getValue() + "=cookie");
+        request.addHeader(AUTHORIZATION, "bearer  header ");
+
+        assertThat(tokenExtractor.extract(request, ACCESS)).isEqualTo("header");
+    }
+
+    @Test
+    void blankBearerHeaderFallsBackToAccessCookie() {
+        var request = new MockHttpServletRequest();
+        request.addHeader(COOKIE, ACCESS.getValue() + "=cookie");
+        request.addHeader(AUTHORIZATION, "Bearer   ");
+
+        assertThat(tokenExtractor.extract(request, ACCESS)).isEqualTo("cookie");
+    }
+
+    @Test
+    void blankBearerHeaderWithoutCookieYieldsNoToken() {
+        var request = new MockHttpServletRequest();
+        request.addHeader(AUTHORIZATION, "Bearer ");
+
+        assertThat(tokenExtractor.extract(request, ACCESS)).isNull();
+    }
+}
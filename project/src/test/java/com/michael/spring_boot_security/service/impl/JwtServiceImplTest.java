@@ -0,0 +1,195 @@
+package com.michael.spring_boot_security.service.impl;
+
+import com.michael.spring_boot_security.cache.CacheInvalidationBus;
+import com.michael.spring_boot_security.cache.CacheStore;
+import com.michael.spring_boot_security.cache.LocalCacheInvalidationBus;
+import com.michael.spring_boot_security.cache.LocalSharedCacheTier;
+import com.michael.spring_boot_security.cache.SharedCacheTier;
+import com.michael.spring_boot_security.cache.TieredCacheStore;
+import com.michael.spring_boot_security.domain.User;
+import com.michael.spring_boot_security.exception.payload.ApiException;
+import com.michael.spring_boot_security.repository.UserRepository;
+import com.michael.spring_boot_security.security.JwtKeyRing;
+import com.michael.spring_boot_security.security.SecurityEpochStore;
+import com.michael.spring_boot_security.security.TokenExtractor;
+import com.michael.spring_boot_security.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.michael.spring_boot_security.enumerations.TokenType.ACCESS;
+import static com.michael.spring_boot_security.enumerations.TokenType.REFRESH;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+import static org.springframework.http.HttpHeaders.COOKIE;
+
+class JwtServiceImplTest {
+    private static final String SECRET = "secretsecretsecretsecretsecretsecretsecretsecretsecretsecretsecretsecretssecretwslsdfjnskdlnmea";
+    private static final int REPLAYS = 16;
+
+    private final UserService userService = mock(UserService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final SharedCacheTier sharedTier = new LocalSharedCacheTier();
+    private final CacheInvalidationBus invalidationBus = new LocalCacheInvalidationBus();
+    private final SecurityEpochStore epochStore = new SecurityEpochStore(new CacheStore<>("maximumSize=1000"), userRepository);
+    private final User user = User.builder()
+            .id(1L)
+            .userId("user-1")
+            .email("user@mail.com")
+            .role("USER")
+            .authorities("document:read")
+            .accountNonExpired(true)
+            .accountNonLocked(true)
+            .credentialsNonExpired(true)
+            .enabled(true)
+            .build();
+    private JwtKeyRing keyRing;
+    private JwtServiceImpl jwtService;
+
+    @BeforeEach
+    void setUp() {
+        keyRing = new JwtKeyRing();
+        keyRing.setSecret(SECRET);
+        keyRing.rotate("test", SECRET);
+        when(userRepository.findSecurityEpochByUserId(anyString())).thenReturn(Optional.empty());
+        when(userService.getUserSummary(user.getUserId())).thenReturn(user);
+        jwtService = node();
+    }
+
+    @Test
+    void concurrentReplaysOfOneRefreshTokenRotateItOnce() throws Exception {
+        var refreshToken = jwtService.createToken(user, REFRESH);
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(REPLAYS);
+        try {
+            var results = new ArrayList<Future<Boolean>>();
+            for (var i = 0; i < REPLAYS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return refresh(refreshToken);
+                }));
+            }
+            start.countDown();
+            var succeeded = 0;
+            for (var result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            assertThat(succeeded).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void replayOfRotatedTokenRevokesTheWholeFamily() {
+        var first = jwtService.createToken(user, REFRESH);
+        var response = new MockHttpServletResponse();
+        jwtService.refreshToken(request(first), response);
+        var second = response.getCookie(REFRESH.getValue()).getValue();
+
+        assertThatThrownBy(() -> jwtService.refreshToken(request(first), new MockHttpServletResponse()))
+                .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> jwtService.refreshToken(request(second), new MockHttpServletResponse()))
+                .isInstanceOf(ApiException.class);
+    }
+
+    @Test
+    void refreshTokenIssuedOnOneNodeRotatesOnAnother() {
+        var nodeB = node();
+        var first = jwtService.createToken(user, REFRESH);
+        var response = new MockHttpServletResponse();
+
+        assertThat(nodeB.refreshToken(request(first), response).getUserId()).isEqualTo(user.getUserId());
+        var second = response.getCookie(REFRESH.getValue()).getValue();
+        assertThatThrownBy(() -> jwtService.refreshToken(request(first), new MockHttpServletResponse()))
+                .isInstanceOf(ApiException.class);
+        assertThatThrownBy(() -> jwtService.refreshToken(request(second), new MockHttpServletResponse()))
+                .isInstanceOf(ApiException.class);
+    }
+
+    @Test
+    void refreshTokenIssuedBeforeEpochBumpIsRejected() {
+        when(userRepository.advanceSecurityEpoch(anyString(), anyLong())).thenReturn(1);
+        var refreshToken = jwtService.createToken(user, REFRESH);
+        epochStore.bump(user.getUserId());
+
+        assertThatThrownBy(() -> jwtService.refreshToken(request(refreshToken), new MockHttpServletResponse()))
+                .isInstanceOf(ApiException.class)
+                .hasMessage(JwtServiceImpl.INVALID_REFRESH_TOKEN);
+    }
+
+    @Test
+    void refreshIsRejectedForLockedAccount() {
+        var refreshToken = jwtService.createToken(user, REFRESH);
+        user.setAccountNonLocked(false);
+
+        assertThatThrownBy(() -> jwtService.refreshToken(request(refreshToken), new MockHttpServletResponse()))
+                .isInstanceOf(ApiException.class)
+                .hasMessage("Account is locked");
+    }
+
+    @Test
+    void emptyAccessTokenIsTreatedAsMissing() {
+        var request = new MockHttpServletRequest();
+        request.addHeader(COOKIE, ACCESS.getValue() + "=");
+
+        assertThat(jwtService.getTokenData(request, ACCESS)).isEmpty();
+    }
+
+    @Test
+    void refreshTokenIsRejectedAsBearerToken() {
+        var request = new MockHttpServletRequest();
+        request.addHeader(AUTHORIZATION, "Bearer " + jwtService.createToken(user, REFRESH));
+
+        assertThat(jwtService.getTokenData(request, ACCESS)).isEmpty();
+    }
+
+    @Test
+    void accessTokenIsRejectedAsRefreshToken() {
+        var accessToken = jwtService.createToken(user, ACCESS);
+
+        assertThatThrownBy(() -> jwtService.refreshToken(request(accessToken), new MockHttpServletResponse()))
+                .isInstanceOf(ApiException.class)
+                .hasMessage(JwtServiceImpl.INVALID_REFRESH_TOKEN);
+    }
+
+    // Узел со своими локальными кэшами поверх общего уровня, как в CacheConfig
+    private JwtServiceImpl node() {
+        var refreshTokenFamilies = new TieredCacheStore<String, String>("refreshTokenFamilies", "maximumSize=1000,expireAfterWrite=3600s",
+                Duration.ofHours(1), sharedTier, invalidationBus);
+        var node = new JwtServiceImpl(userService, keyRing, new CacheStore<>("maximumSize=1000"), epochStore,
+                refreshTokenFamilies, new TokenExtractor());
+        node.setExpiration(3600L);
+        return node;
+    }
+
+    private boolean refresh(String refreshToken) {
+        try {
+            jwtService.refreshToken(request(refreshToken), new MockHttpServletResponse());
+            return true;
+        } catch (ApiException exception) {
+            return false;
+        }
+    }
+
+    private static MockHttpServletRequest request(String refreshToken) {
+        var request = new MockHttpServletRequest();
+        request.addHeader(COOKIE, REFRESH.getValue() + "=" + refreshToken);
+        return request;
+    }
+}
@@ -0,0 +1,79 @@
+package com.michael.spring_boot_security.service.impl;
+
+import com.michael.spring_boot_security.cache.CacheStore;
+import dev.samstevens.totp.code.DefaultCodeGenerator;
+import dev.samstevens.totp.secret.DefaultSecretGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static com.michael.spring_boot_security.constans.AppConstants.TOTP_ALLOWED_DISCREPANCY;
+import static com.michael.spring_boot_security.constans.AppConstants.TOTP_PERIOD;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Коды сверяются с генератором библиотеки java-totp, которой проверка пользовалась раньше
+class TotpServiceImplTest {
+    private final String secret = new DefaultSecretGenerator().generate();
+    private final TotpServiceImpl totpService = new TotpServiceImpl(new CacheStore<>("maximumSize=100"),
+            new CacheStore<>("maximumSize=100,expireAfterWrite=90s"));
+
+    @Test
+    void currentCodeIsAccepted() throws Exception {
+        assertThat(totpService.verify("user-1", secret, code(currentStep()))).isTrue();
+    }
+
+    @Test
+    void codeFromAdjacentStepIsAccepted() throws Exception {
+        assertThat(totpService.verify("user-1", secret, code(currentStep() - TOTP_ALLOWED_DISCREPANCY))).isTrue();
+    }
+
+    @Test
+    void codeOutsideAllowedWindowIsRejected() throws Exception {
+        assertThat(totpService.verify("user-1", secret, code(currentStep() - TOTP_ALLOWED_DISCREPANCY - 2))).isFalse();
+    }
+
+    @Test
+    void replayedCodeIsRejected() throws Exception {
+        var code = code(currentStep());
+
+        assertThat(totpService.verify("user-1", secret, code)).isTrue();
+        assertThat(totpService.verify("user-1", secret, code)).isFalse();
+    }
+
+    @Test
+    void replayProtectionIsPerUser() throws Exception {
+        var code = code(currentStep());
+
+        assertThat(totpService.verify("user-1", secret, code)).isTrue();
+        assertThat(totpService.verify("user-2", secret, code)).isTrue();
+    }
+
+    @Test
+    void malformedCodesAndBlankSecretAreRejected() throws Exception {
+        assertThat(totpService.verify("user-1", secret, null)).isFalse();
+        assertThat(totpService.verify("user-1", secret, "12345")).isFalse();
+        assertThat(totpService.verify("user-1", secret, "12a456")).isFalse();
+        assertThat(totpService.verify("user-1", "", code(currentStep()))).isFalse();
+    }
+
+    @Test
+    void changedSecretIsNeverServedFromCache() throws Exception {
+        var newSecret = new DefaultSecretGenerator().generate();
+
+        assertThat(totpService.verify("user-1", secret, code(currentStep()))).isTrue();
+        assertThat(totpService.verify("user-1", newSecret, code(secret, currentStep() + 1))).isFalse();
+        assertThat(totpService.verify("user-1", newSecret, code(newSecret, currentStep() - 1))).isTrue();
+    }
+
+    private String code(long step) throws Exception {
+        return code(secret, step);
+    }
+
+    private static String code(String secret, long step) throws Exception {
+        return new DefaultCodeGenerator().generate(secret, step);
+    }
+
+    private static long currentStep() {
+        return Instant.now().getEpochSecond() / TOTP_PERIOD;
+    }
+}
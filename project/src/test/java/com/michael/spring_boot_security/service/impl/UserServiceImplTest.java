@@ -0,0 +1,50 @@
+package com.michael.spring_boot_security.service.impl;
+
+import com.michael.spring_boot_security.cache.CacheStore;
+import com.michael.spring_boot_security.repository.UserRepository;
+import com.michael.spring_boot_security.security.LoginAttemptTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static com.michael.spring_boot_security.enumerations.LoginType.LOGIN_ATTEMPT;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class UserServiceImplTest {
+    private static final String UNKNOWN_EMAIL = "nobody@example.com";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final LoginAttemptTracker loginAttemptTracker = mock(LoginAttemptTracker.class);
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.findUserIdByEmail(UNKNOWN_EMAIL)).thenReturn(Optional.empty());
+        // Для учёта попыток входа нужны только репозиторий, счётчики, негативный кэш и трекер
+        userService = new UserServiceImpl(userRepository, null, null, null, null,
+                new CacheStore<>("maximumSize=100,expireAfterWrite=900s"), null,
+                new CacheStore<>("maximumSize=100,expireAfterWrite=600s"), null, null, null,
+                loginAttemptTracker, null, null);
+    }
+
+    @Test
+    void attemptsOnUnknownEmailNeverWriteToDatabase() {
+        for (var i = 0; i < 10; i++) {
+            userService.updateLoginAttempt(UNKNOWN_EMAIL, LOGIN_ATTEMPT);
+        }
+
+        verify(userRepository, times(1)).findUserIdByEmail(UNKNOWN_EMAIL);
+        verify(userRepository, never()).unlockAccount(anyString());
+        verify(userRepository, never()).lockAccount(anyString());
+        verify(userRepository, never()).updateLoginAttempts(anyString(), anyInt());
+        verifyNoInteractions(loginAttemptTracker);
+    }
+}